@@ -0,0 +1,44 @@
+package com.akaita.android.circularseekbar.benchmark;
+
+import com.akaita.android.circularseekbar.core.AngleKernel;
+
+/**
+ * Prints the error of each angle kernel, to read next to the throughput reported by {@link AngleBenchmark}.
+ * ./gradlew :benchmark:angleAccuracy
+ */
+public final class AngleAccuracy {
+    static final String[] KERNELS = {"exact", "polynomial", "lut64", "lut256", "lut1024"};
+
+    /**
+     * @param name "exact", "polynomial" or "lut" followed by the table resolution
+     */
+    static AngleKernel kernel(String name) {
+        if (name.equals("exact")) {
+            return AngleKernel.exact();
+        } else if (name.equals("polynomial")) {
+            return AngleKernel.polynomial();
+        } else if (name.startsWith("lut")) {
+            return AngleKernel.lookupTable(Integer.parseInt(name.substring(3)));
+        }
+        throw new IllegalArgumentException("Unknown kernel " + name);
+    }
+
+    public static void main(String[] args) {
+        final int samples = 1000000;
+        System.out.println("kernel,maxErrorDegrees,meanErrorDegrees");
+        for (String name : KERNELS) {
+            AngleKernel kernel = kernel(name);
+            double max = 0;
+            double sum = 0;
+            for (int i = 0; i < samples; i++) {
+                double radians = 2 * Math.PI * i / samples;
+                float x = (float) (Gesture.RADIUS * Math.cos(radians));
+                float y = (float) (Gesture.RADIUS * Math.sin(radians));
+                double error = Math.abs(kernel.atan2Degrees(y, x) - Math.toDegrees(Math.atan2(y, x)));
+                max = Math.max(max, error);
+                sum += error;
+            }
+            System.out.println(name + "," + max + "," + sum / samples);
+        }
+    }
+}
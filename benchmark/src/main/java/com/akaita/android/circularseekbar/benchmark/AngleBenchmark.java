@@ -0,0 +1,58 @@
+package com.akaita.android.circularseekbar.benchmark;
+
+import com.akaita.android.circularseekbar.core.AngleKernel;
+import com.akaita.android.circularseekbar.core.SeekBarEngine;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Angle of a touch relative to the center, per angle kernel. See {@link AngleAccuracy} for their error
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AngleBenchmark {
+    @Param({"exact", "polynomial", "lut64", "lut256", "lut1024"})
+    public String kernel;
+
+    private Gesture mGesture;
+    private AngleKernel mKernel;
+    private SeekBarEngine mEngine;
+    private int mIndex;
+
+    @Setup
+    public void setUp() {
+        mGesture = new Gesture(120, 360);
+        mEngine = new SeekBarEngine();
+        mEngine.setSize(Gesture.SIZE, Gesture.SIZE);
+        mKernel = AngleAccuracy.kernel(kernel);
+        mEngine.setAngleKernel(mKernel);
+    }
+
+    @Benchmark
+    public float kernelAtan2() {
+        int i = mIndex++ & Gesture.MASK;
+        return mKernel.atan2Degrees(Gesture.CENTER - mGesture.x[i], Gesture.CENTER - mGesture.y[i]);
+    }
+
+    @Benchmark
+    public float engineAngle() {
+        int i = mIndex++ & Gesture.MASK;
+        return mEngine.getAngle(mGesture.x[i], mGesture.y[i]);
+    }
+}
@@ -0,0 +1,123 @@
+package com.akaita.android.circularseekbar.benchmark;
+
+import java.io.BufferedReader;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compares a JMH CSV result file against a baseline produced on the same kind of machine,
+ * and exits with an error if any benchmark regressed by more than the tolerance.
+ * <br/>
+ * Usage: BaselineCheck baseline.csv results.csv [tolerance, default 0.10]
+ */
+public class BaselineCheck {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: BaselineCheck baseline.csv results.csv [tolerance]");
+            System.exit(2);
+        }
+        double tolerance = args.length > 2 ? Double.parseDouble(args[2]) : 0.10;
+        Map<String, Result> baseline = read(args[0]);
+        Map<String, Result> current = read(args[1]);
+
+        int regressions = 0;
+        for (Map.Entry<String, Result> entry : current.entrySet()) {
+            Result before = baseline.get(entry.getKey());
+            Result after = entry.getValue();
+            if (before == null) {
+                System.out.println("NEW        " + entry.getKey() + " " + after);
+                continue;
+            }
+            // throughput: higher is better; every other mode measures time: lower is better
+            double change = after.score / before.score - 1;
+            boolean regressed = "thrpt".equals(after.mode) ? change < -tolerance : change > tolerance;
+            if (regressed) {
+                regressions++;
+            }
+            System.out.println(String.format("%-10s %s %s -> %s (%+.1f%%)",
+                    regressed ? "REGRESSED" : "OK", entry.getKey(), before, after, change * 100));
+        }
+
+        if (regressions > 0) {
+            System.err.println(regressions + " benchmark(s) regressed by more than " + tolerance * 100 + "%");
+            System.exit(1);
+        }
+    }
+
+    private static Map<String, Result> read(String path) throws IOException {
+        Map<String, Result> results = new LinkedHashMap<>();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(path), "UTF-8"));
+        try {
+            List<String> header = split(reader.readLine());
+            int benchmark = header.indexOf("Benchmark");
+            int mode = header.indexOf("Mode");
+            int score = header.indexOf("Score");
+            int unit = header.indexOf("Unit");
+            String line;
+            while ((line = reader.readLine()) != null) {
+                List<String> row = split(line);
+                StringBuilder key = new StringBuilder(row.get(benchmark));
+                for (int i = 0; i < header.size(); i++) {
+                    if (header.get(i).startsWith("Param: ") && i < row.size() && !row.get(i).isEmpty()) {
+                        key.append(' ').append(header.get(i).substring(7)).append('=').append(row.get(i));
+                    }
+                }
+                results.put(key.toString(), new Result(row.get(mode),
+                        Double.parseDouble(row.get(score)), row.get(unit)));
+            }
+        } finally {
+            reader.close();
+        }
+        return results;
+    }
+
+    /**
+     * split a CSV line, honouring quotes (benchmark parameters may contain commas)
+     */
+    private static List<String> split(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '"') {
+                if (quoted && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = !quoted;
+                }
+            } else if (c == ',' && !quoted) {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static class Result {
+        final String mode;
+        final double score;
+        final String unit;
+
+        Result(String mode, double score, String unit) {
+            this.mode = mode;
+            this.score = score;
+            this.unit = unit;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%.3f %s", score, unit);
+        }
+    }
+}
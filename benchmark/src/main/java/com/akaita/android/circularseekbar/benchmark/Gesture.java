@@ -0,0 +1,35 @@
+package com.akaita.android.circularseekbar.benchmark;
+
+/**
+ * Pre-computed touch samples of a finger spinning around the ring, so benchmarks
+ * measure the seek bar and not the generation of the input
+ */
+final class Gesture {
+    static final int SIZE = 400;
+    static final float CENTER = SIZE / 2;
+    static final float RADIUS = 150f;
+    // number of samples, a power of two so the index can be masked
+    static final int LENGTH = 4096;
+    static final int MASK = LENGTH - 1;
+
+    final float[] x = new float[LENGTH];
+    final float[] y = new float[LENGTH];
+    final long[] time = new long[LENGTH];
+
+    /**
+     * @param sampleRateHz touch samples per second
+     * @param degreesPerSecond speed of the spin, negative for counter-clockwise
+     */
+    Gesture(int sampleRateHz, float degreesPerSecond) {
+        double intervalMs = 1000.0 / sampleRateHz;
+        for (int i = 0; i < LENGTH; i++) {
+            double ms = i * intervalMs;
+            double angle = Math.toRadians(degreesPerSecond * ms / 1000);
+            // a bit of radial jitter, like a real finger
+            float radius = RADIUS + (float) Math.sin(i * 0.7) * 10;
+            x[i] = CENTER + radius * (float) Math.sin(angle);
+            y[i] = CENTER - radius * (float) Math.cos(angle);
+            time[i] = (long) ms;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.akaita.android.circularseekbar.benchmark;
+
+import com.akaita.android.circularseekbar.core.SeekBarEngine;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Whether a touch lands on the ring. powSqrt is the original Math.pow based distance, kept as reference
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HitTestBenchmark {
+    private Gesture mGesture;
+    private SeekBarEngine mEngine;
+    private int mIndex;
+
+    @Setup
+    public void setUp() {
+        mGesture = new Gesture(120, 360);
+        mEngine = new SeekBarEngine();
+        mEngine.setSize(Gesture.SIZE, Gesture.SIZE);
+    }
+
+    @Benchmark
+    public boolean engineIsOnRing() {
+        int i = mIndex++ & Gesture.MASK;
+        return mEngine.isOnRing(mGesture.x[i], mGesture.y[i]);
+    }
+
+    @Benchmark
+    public boolean powSqrt() {
+        int i = mIndex++ & Gesture.MASK;
+        float distance = (float) Math.sqrt(Math.pow(mGesture.x[i] - Gesture.CENTER, 2.0)
+                + Math.pow(mGesture.y[i] - Gesture.CENTER, 2.0));
+        return distance >= mEngine.getInnerCircleRadius() && distance < mEngine.getOuterCircleRadius();
+    }
+}
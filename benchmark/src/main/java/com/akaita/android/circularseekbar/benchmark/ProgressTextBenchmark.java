@@ -0,0 +1,65 @@
+package com.akaita.android.circularseekbar.benchmark;
+
+import com.akaita.android.circularseekbar.core.ProgressTextBuffer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.text.NumberFormat;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Formatting of the progress text: NumberFormat.format (one String per frame) against ProgressTextBuffer
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProgressTextBenchmark {
+    private static final int VALUES = 1024;
+
+    @Param({"###,###,###,##0.0", "###,###,###,##0.00", "0.0 dB"})
+    public String pattern;
+
+    @Param({"100", "1000000000"})
+    public float max;
+
+    private final float[] mValues = new float[VALUES];
+    private NumberFormat mFormat;
+    private ProgressTextBuffer mBuffer;
+    private int mIndex;
+
+    @Setup
+    public void setUp() {
+        mFormat = new DecimalFormat(pattern, DecimalFormatSymbols.getInstance(Locale.US));
+        mBuffer = new ProgressTextBuffer(mFormat);
+        for (int i = 0; i < VALUES; i++) {
+            mValues[i] = max * i / VALUES;
+        }
+    }
+
+    @Benchmark
+    public String numberFormat() {
+        return mFormat.format(mValues[mIndex++ & (VALUES - 1)]);
+    }
+
+    @Benchmark
+    public int progressTextBuffer() {
+        mBuffer.update(mValues[mIndex++ & (VALUES - 1)]);
+        return mBuffer.getLength();
+    }
+}
@@ -0,0 +1,44 @@
+package com.akaita.android.circularseekbar.benchmark;
+
+import com.akaita.android.circularseekbar.core.SeekBarEngine;
+import com.akaita.android.circularseekbar.core.TouchRecording;
+import com.akaita.android.circularseekbar.core.TouchReplay;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Replays touch recordings and prints, per sample, the progress and the time the engine took, as CSV.
+ * Each recording is replayed a few times first so the timings are of compiled code.
+ * ./gradlew :benchmark:replay -Preplay.files="gesture-0.touch gesture-1.touch"
+ */
+public final class TouchReplayReport {
+    private static final int WARMUP_REPLAYS = 200;
+
+    public static void main(String[] args) throws IOException {
+        System.out.println("recording,sample,action,eventTime,result,progress,nanos");
+        for (String path : args) {
+            TouchRecording recording = read(path);
+            for (int i = 0; i < WARMUP_REPLAYS; i++) {
+                TouchReplay.replay(recording, new SeekBarEngine());
+            }
+            TouchReplay.Result result = TouchReplay.replay(recording, new SeekBarEngine());
+            for (int i = 0; i < result.size(); i++) {
+                System.out.println(path + "," + i + "," + recording.getAction(i) + "," + recording.getEventTime(i)
+                        + "," + result.getResult(i) + "," + result.getProgress(i) + "," + result.getEventNanos(i));
+            }
+            System.err.println(path + ": final progress " + result.getFinalProgress()
+                    + ", max jump " + result.getMaxJump() + ", " + result.getTotalNanos() + "ns");
+        }
+    }
+
+    private static TouchRecording read(String path) throws IOException {
+        InputStream in = new FileInputStream(path);
+        try {
+            return TouchRecording.read(in);
+        } finally {
+            in.close();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.akaita.android.circularseekbar.benchmark;
+
+import com.akaita.android.circularseekbar.core.SeekBarEngine;
+import com.akaita.android.circularseekbar.core.ValueScale;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Value integration, scale mapping and clamping, alone and as part of a whole touch move
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UpdateProgressBenchmark {
+    @Param({"1", "100", "1000000", "1000000000"})
+    public float max;
+
+    @Param({"120", "240"})
+    public int sampleRateHz;
+
+    @Param({"linear", "logarithmic"})
+    public String scale;
+
+    private Gesture mGesture;
+    private SeekBarEngine mEngine;
+    private int mIndex;
+    private long mTimeOffset;
+
+    @Setup
+    public void setUp() {
+        mGesture = new Gesture(sampleRateHz, 720);
+        mEngine = new SeekBarEngine();
+        mEngine.setSize(Gesture.SIZE, Gesture.SIZE);
+        mEngine.setMax(max);
+        if (scale.equals("logarithmic")) {
+            mEngine.setMin(max / 1000);
+            mEngine.setValueScale(ValueScale.logarithmic());
+        }
+        mEngine.onTouch(SeekBarEngine.ACTION_DOWN, mGesture.x[0], mGesture.y[0], 0);
+    }
+
+    @Benchmark
+    public float updateProgress() {
+        int i = mIndex++ & Gesture.MASK;
+        // alternate direction so the progress keeps moving instead of sticking to a bound
+        mEngine.updateProgress(mGesture.x[i], mGesture.y[i], (i & 1024) == 0 ? 0.7f : -0.7f);
+        return mEngine.getProgress();
+    }
+
+    @Benchmark
+    public float touchMove() {
+        int i = mIndex++ & Gesture.MASK;
+        if (i == 0) {
+            mTimeOffset += mGesture.time[Gesture.MASK] + 1;
+        }
+        mEngine.onTouch(SeekBarEngine.ACTION_MOVE, mGesture.x[i], mGesture.y[i], mTimeOffset + mGesture.time[i]);
+        return mEngine.getProgress();
+    }
+}
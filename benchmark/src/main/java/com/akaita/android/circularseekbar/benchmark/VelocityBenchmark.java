@@ -0,0 +1,56 @@
+package com.akaita.android.circularseekbar.benchmark;
+
+import com.akaita.android.circularseekbar.core.AngularVelocityTracker;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of adding one touch sample and estimating the angular velocity, per strategy and sample rate
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VelocityBenchmark {
+    @Param({"60", "120", "240", "480"})
+    public int sampleRateHz;
+
+    @Param({"" + AngularVelocityTracker.STRATEGY_TWO_SAMPLE, "" + AngularVelocityTracker.STRATEGY_LEAST_SQUARES})
+    public int strategy;
+
+    private Gesture mGesture;
+    private AngularVelocityTracker mTracker;
+    private int mIndex;
+    private long mTimeOffset;
+
+    @Setup
+    public void setUp() {
+        mGesture = new Gesture(sampleRateHz, 720);
+        mTracker = new AngularVelocityTracker(Gesture.CENTER, Gesture.CENTER, strategy);
+    }
+
+    @Benchmark
+    public float addMovementAndGetVelocity() {
+        int i = mIndex++ & Gesture.MASK;
+        if (i == 0) {
+            // keep time moving forward when the gesture loops
+            mTimeOffset += mGesture.time[Gesture.MASK] + 1;
+        }
+        mTracker.addMovement(mGesture.x[i], mGesture.y[i], mTimeOffset + mGesture.time[i]);
+        return mTracker.getAngularVelocity();
+    }
+}
@@ -0,0 +1,102 @@
+package com.akaita.android.circularseekbar.core;
+
+import java.util.Arrays;
+
+/**
+ * Transfer function from the angular speed of the finger to the speed the progress moves at, like
+ * pointer ballistics: slow turns can be made finer and fast turns can cover more of the range.
+ * Curves are sampled into a table when they are set, so they may be as expensive as needed.
+ * All the presets leave a turn at {@link #REFERENCE_SPEED} unchanged.
+ */
+public abstract class AccelerationCurve {
+
+    /**
+     * A comfortable turn, in degrees per millisecond
+     */
+    public static final float REFERENCE_SPEED = 0.5f;
+
+    private static final AccelerationCurve LINEAR = new AccelerationCurve() {
+        @Override
+        public float transfer(float speed) {
+            return speed;
+        }
+    };
+
+    private static final AccelerationCurve PRECISION = piecewise(
+            new float[]{0f, 0.1f, 0.5f, 1.5f, 4f},
+            new float[]{0.25f, 0.35f, 1f, 1.5f, 2f});
+
+    private static final AccelerationCurve FAST = power(1.6f);
+
+    public static AccelerationCurve linear() {
+        return LINEAR;
+    }
+
+    /**
+     * Much finer below the reference speed, up to twice as fast above it
+     */
+    public static AccelerationCurve precision() {
+        return PRECISION;
+    }
+
+    /**
+     * Increasingly faster above the reference speed, to cross big ranges
+     */
+    public static AccelerationCurve fast() {
+        return FAST;
+    }
+
+    /**
+     * Speed raised to the exponent, scaled to meet linear at {@link #REFERENCE_SPEED}
+     * @param exponent 1 for linear, above 1 to accelerate
+     */
+    public static AccelerationCurve power(final float exponent) {
+        return new AccelerationCurve() {
+            @Override
+            public float transfer(float speed) {
+                return REFERENCE_SPEED * (float) Math.pow(speed / REFERENCE_SPEED, exponent);
+            }
+        };
+    }
+
+    /**
+     * Gain, the output speed divided by the input speed, linear between breakpoints and constant outside them
+     * @param speeds ascending, in degrees per millisecond
+     * @param gains at each speed, positive
+     */
+    public static AccelerationCurve piecewise(float[] speeds, float[] gains) {
+        if (speeds.length < 1 || speeds.length != gains.length) {
+            throw new IllegalArgumentException("At least one breakpoint, with one gain per speed");
+        }
+        for (int i = 0; i < speeds.length; i++) {
+            if ((i > 0 && speeds[i] <= speeds[i - 1]) || gains[i] <= 0) {
+                throw new IllegalArgumentException("Speeds must be ascending and gains positive");
+            }
+        }
+        final float[] s = Arrays.copyOf(speeds, speeds.length);
+        final float[] g = Arrays.copyOf(gains, gains.length);
+        return new AccelerationCurve() {
+            @Override
+            public float transfer(float speed) {
+                if (speed <= s[0]) {
+                    return speed * g[0];
+                }
+                int i = 1;
+                while (i < s.length && speed > s[i]) {
+                    i++;
+                }
+                if (i == s.length) {
+                    return speed * g[i - 1];
+                }
+                float gain = g[i - 1] + (g[i] - g[i - 1]) * (speed - s[i - 1]) / (s[i] - s[i - 1]);
+                return speed * gain;
+            }
+        };
+    }
+
+    /**
+     * @param speed in degrees per millisecond, never negative
+     * @return the speed the progress moves at, in the same unit. Must not decrease as the speed increases
+     */
+    public abstract float transfer(float speed);
+}
@@ -0,0 +1,59 @@
+package com.akaita.android.circularseekbar.core;
+
+/**
+ * An {@link AccelerationCurve} sampled at equally spaced speeds and linearly interpolated, so that
+ * evaluating it on every event is a couple of array reads. Beyond the table the last gain is kept.
+ */
+final class AccelerationTable {
+    // degrees per millisecond, faster than any finger
+    private static final float MAX_SPEED = 5f;
+    private static final int SEGMENTS = 256;
+    private static final float SEGMENTS_PER_SPEED = SEGMENTS / MAX_SPEED;
+
+    private final float[] mOutput = new float[SEGMENTS + 1];
+    private float mTailGain;
+    private boolean mLinear;
+
+    void build(AccelerationCurve curve) {
+        mLinear = curve == AccelerationCurve.linear();
+        for (int i = 0; i <= SEGMENTS; i++) {
+            mOutput[i] = curve.transfer(i / SEGMENTS_PER_SPEED);
+        }
+        mTailGain = mOutput[SEGMENTS] / MAX_SPEED;
+    }
+
+    /**
+     * @param speed in degrees per millisecond, either direction
+     * @return output speed divided by the input speed
+     */
+    float gain(float speed) {
+        if (mLinear) {
+            return 1;
+        }
+        float magnitude = Math.abs(speed);
+        if (magnitude == 0) {
+            // slope at rest
+            return mOutput[1] * SEGMENTS_PER_SPEED;
+        }
+        return apply(magnitude) / magnitude;
+    }
+
+    /**
+     * @param speed in degrees per millisecond, negative counter-clockwise
+     */
+    float apply(float speed) {
+        if (mLinear) {
+            return speed;
+        }
+        float magnitude = Math.abs(speed);
+        float output;
+        if (magnitude >= MAX_SPEED) {
+            output = magnitude * mTailGain;
+        } else {
+            float scaled = magnitude * SEGMENTS_PER_SPEED;
+            int index = (int) scaled;
+            output = mOutput[index] + (mOutput[index + 1] - mOutput[index]) * (scaled - index);
+        }
+        return speed < 0 ? -output : output;
+    }
+}
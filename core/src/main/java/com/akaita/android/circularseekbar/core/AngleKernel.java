@@ -0,0 +1,98 @@
+package com.akaita.android.circularseekbar.core;
+
+/**
+ * Computes atan2 in degrees. Touch angles are needed for every pointer sample, so implementations
+ * trade accuracy for speed:
+ * <ul>
+ *     <li>{@link #exact()}: {@link Math#atan2} in double precision</li>
+ *     <li>{@link #polynomial()}: float minimax polynomial, error below 0.001°</li>
+ *     <li>{@link #lookupTable(int)}: linearly interpolated table, error shrinking with the resolution</li>
+ * </ul>
+ * Kernels are stateless once built, so a single instance can be shared.
+ */
+public abstract class AngleKernel {
+
+    private static final float RAD_TO_DEG = (float) (180 / Math.PI);
+
+    private static final AngleKernel EXACT = new AngleKernel() {
+        @Override
+        public float atan2Degrees(float y, float x) {
+            return (float) Math.toDegrees(Math.atan2(y, x));
+        }
+    };
+
+    private static final AngleKernel POLYNOMIAL = new AngleKernel() {
+        @Override
+        protected float atanDegrees(float z) {
+            float z2 = z * z;
+            return z * (0.99986600f + z2 * (-0.33029950f + z2 * (0.18014100f + z2 * (-0.08513300f + z2 * 0.02083510f))))
+                    * RAD_TO_DEG;
+        }
+    };
+
+    public static AngleKernel exact() {
+        return EXACT;
+    }
+
+    public static AngleKernel polynomial() {
+        return POLYNOMIAL;
+    }
+
+    /**
+     * @param resolution number of table intervals covering 0-45°, at least 1. 256 is within 0.001°
+     */
+    public static AngleKernel lookupTable(int resolution) {
+        return new LookupTable(resolution);
+    }
+
+    /**
+     * @return the angle of the vector (x, y) in degrees, -180 to 180, like Math.toDegrees(Math.atan2(y, x))
+     */
+    public float atan2Degrees(float y, float x) {
+        float ax = Math.abs(x);
+        float ay = Math.abs(y);
+        if (ax == 0 && ay == 0) {
+            return 0;
+        }
+        // reduce to the first octant, where the ratio is 0-1
+        float angle = ax >= ay ? atanDegrees(ay / ax) : 90 - atanDegrees(ax / ay);
+        if (x < 0) {
+            angle = 180 - angle;
+        }
+        return y < 0 ? -angle : angle;
+    }
+
+    /**
+     * @param z 0-1
+     * @return atan(z) in degrees
+     */
+    protected float atanDegrees(float z) {
+        return (float) Math.toDegrees(Math.atan(z));
+    }
+
+    private static class LookupTable extends AngleKernel {
+        private final float[] mTable;
+        private final int mResolution;
+
+        LookupTable(int resolution) {
+            if (resolution < 1) {
+                throw new IllegalArgumentException("resolution must be at least 1");
+            }
+            mResolution = resolution;
+            // one extra entry so that z == 1 interpolates without a bounds check
+            mTable = new float[resolution + 2];
+            for (int i = 0; i <= resolution; i++) {
+                mTable[i] = (float) Math.toDegrees(Math.atan((double) i / resolution));
+            }
+            mTable[resolution + 1] = mTable[resolution];
+        }
+
+        @Override
+        protected float atanDegrees(float z) {
+            float position = z * mResolution;
+            int index = (int) position;
+            float fraction = position - index;
+            return mTable[index] + (mTable[index + 1] - mTable[index]) * fraction;
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.akaita.android.circularseekbar.core;
+
+/**
+ * Tracks the angular velocity of a pointer moving around a centre.
+ * Samples are kept in a fixed-capacity primitive ring buffer, angles are unwrapped so that
+ * crossing the 0/360 boundary is continuous, and the velocity is estimated by the selected strategy.
+ * Velocities are given in degrees per millisecond, positive clockwise.
+ */
+public class AngularVelocityTracker {
+
+    // TODO use event.pressure (maybe: angle*(1+pressure))
+    // TODO whoever uses this class should convert speed to value-change
+
+    /**
+     * Velocity from the two most recent samples, ignoring jumps of 20 degrees or more
+     */
+    public static final int STRATEGY_TWO_SAMPLE = 0;
+    /**
+     * Velocity from a least-squares line fitted through the recent samples
+     */
+    public static final int STRATEGY_LEAST_SQUARES = 1;
+
+    private static final int CAPACITY = 20;
+    // samples older than this, relative to the most recent one, are not part of the fit
+    private static final long HORIZON_MS = 100;
+    // a gap this long between two samples means the pointer stopped in between
+    private static final long ASSUME_STOPPED_MS = 40;
+    // largest jump accepted by STRATEGY_TWO_SAMPLE
+    private static final double MAX_TWO_SAMPLE_DELTA = 20;
+
+    private final double[] mAngles = new double[CAPACITY];
+    private final long[] mTimes = new long[CAPACITY];
+    private int mNewest = -1;
+    private int mCount = 0;
+    private double mLastRawAngle;
+
+    private float mCentreX;
+    private float mCentreY;
+    private int mStrategy;
+    private AngleKernel mAngleKernel = AngleKernel.exact();
+
+    public AngularVelocityTracker(float centreX, float centreY){
+        this(centreX, centreY, STRATEGY_LEAST_SQUARES);
+    }
+
+    public AngularVelocityTracker(float centreX, float centreY, int strategy){
+        mCentreX = centreX;
+        mCentreY = centreY;
+        mStrategy = strategy;
+    }
+
+    public void setCentre(float centreX, float centreY) {
+        mCentreX = centreX;
+        mCentreY = centreY;
+        clear();
+    }
+
+    public void setStrategy(int strategy) {
+        mStrategy = strategy;
+    }
+
+    public int getStrategy() {
+        return mStrategy;
+    }
+
+    /**
+     * @param kernel used by {@link #addMovement} to turn positions into angles
+     */
+    public void setAngleKernel(AngleKernel kernel) {
+        mAngleKernel = kernel;
+    }
+
+    public AngleKernel getAngleKernel() {
+        return mAngleKernel;
+    }
+
+    /**
+     * Add one pointer sample. Batched samples must be added oldest first
+     * @param x
+     * @param y
+     * @param eventTime in milliseconds
+     */
+    public void addMovement(float x, float y, long eventTime){
+        addAngle(calcAngle(x, y), eventTime);
+    }
+
+    /**
+     * Add one sample whose angle is already known
+     * @param rawAngle in degrees, clockwise, 0 is NORTH. Any range, it is unwrapped here
+     * @param eventTime in milliseconds
+     */
+    public void addAngle(double rawAngle, long eventTime){
+        if (mCount == 0) {
+            mNewest = 0;
+            mCount = 1;
+            mAngles[0] = rawAngle;
+            mTimes[0] = eventTime;
+            mLastRawAngle = rawAngle;
+            return;
+        }
+
+        double delta = rawAngle - mLastRawAngle;
+        if (delta > 180) {
+            delta -= 360;
+        } else if (delta < -180) {
+            delta += 360;
+        }
+        double angle = mAngles[mNewest] + delta;
+        mLastRawAngle = rawAngle;
+
+        if (eventTime != mTimes[mNewest]) {
+            mNewest = (mNewest + 1) % CAPACITY;
+            if (mCount < CAPACITY) {
+                mCount++;
+            }
+        }
+        mAngles[mNewest] = angle;
+        mTimes[mNewest] = eventTime;
+
+        // keep unwrapped angles small, so long spins don't lose precision
+        if (Math.abs(angle) > 3600) {
+            double offset = angle - Math.IEEEremainder(angle, 360);
+            for (int i = 0; i < CAPACITY; i++) {
+                mAngles[i] -= offset;
+            }
+        }
+    }
+
+    public float getAngularVelocity(){
+        if (mCount < 2) {
+            return 0;
+        }
+        switch (mStrategy) {
+            case STRATEGY_TWO_SAMPLE:
+                return getTwoSampleVelocity();
+            case STRATEGY_LEAST_SQUARES:
+            default:
+                return getLeastSquaresVelocity();
+        }
+    }
+
+    public void clear(){
+        mNewest = -1;
+        mCount = 0;
+    }
+
+    private float getTwoSampleVelocity() {
+        int previous = (mNewest + CAPACITY - 1) % CAPACITY;
+        double delta = mAngles[mNewest] - mAngles[previous];
+        if (Math.abs(delta) >= MAX_TWO_SAMPLE_DELTA) {
+            return 0;
+        }
+        return (float) (delta / (mTimes[mNewest] - mTimes[previous]));
+    }
+
+    private float getLeastSquaresVelocity() {
+        final long newestTime = mTimes[mNewest];
+        final double newestAngle = mAngles[mNewest];
+
+        // walk back from the newest sample while samples are recent and continuous
+        int n = 1;
+        long laterTime = newestTime;
+        while (n < mCount) {
+            int index = (mNewest + CAPACITY - n) % CAPACITY;
+            long time = mTimes[index];
+            if (newestTime - time > HORIZON_MS || laterTime - time > ASSUME_STOPPED_MS) {
+                break;
+            }
+            laterTime = time;
+            n++;
+        }
+        if (n < 2) {
+            return 0;
+        }
+
+        // fit relative to the newest sample to keep the sums small
+        double sumT = 0, sumA = 0;
+        for (int i = 0; i < n; i++) {
+            int index = (mNewest + CAPACITY - i) % CAPACITY;
+            sumT += mTimes[index] - newestTime;
+            sumA += mAngles[index] - newestAngle;
+        }
+        double meanT = sumT / n;
+        double meanA = sumA / n;
+        double sxy = 0, sxx = 0;
+        for (int i = 0; i < n; i++) {
+            int index = (mNewest + CAPACITY - i) % CAPACITY;
+            double t = mTimes[index] - newestTime - meanT;
+            double a = mAngles[index] - newestAngle - meanA;
+            sxy += t * a;
+            sxx += t * t;
+        }
+        return sxx == 0 ? 0 : (float) (sxy / sxx);
+    }
+
+    /**
+     * @return angle in degrees, clockwise, 0 is NORTH
+     */
+    private double calcAngle(float x, float y) {
+        return -mAngleKernel.atan2Degrees(mCentreX - x, mCentreY - y);
+    }
+}
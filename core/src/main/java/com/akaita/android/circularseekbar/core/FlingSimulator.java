@@ -0,0 +1,85 @@
+package com.akaita.android.circularseekbar.core;
+
+/**
+ * Angular fling with exponential friction: the velocity decays as v(t) = v0 * e^(-friction * t).
+ * Each step integrates the travelled angle exactly, so the result doesn't depend on the frame rate.
+ */
+public class FlingSimulator {
+
+    private float mFriction = 3f;
+    private float mMinVelocity = 0.01f;
+    private float mVelocity = 0f;
+    private boolean mActive = false;
+
+    /**
+     * @param friction fraction of the velocity lost per second, as an exponential rate. 0 never stops
+     */
+    public void setFriction(float friction) {
+        mFriction = friction;
+    }
+
+    public float getFriction() {
+        return mFriction;
+    }
+
+    /**
+     * @param minVelocity the fling stops below this velocity, in degrees per millisecond
+     */
+    public void setMinVelocity(float minVelocity) {
+        mMinVelocity = minVelocity;
+    }
+
+    public float getMinVelocity() {
+        return mMinVelocity;
+    }
+
+    /**
+     * @param velocity in degrees per millisecond
+     * @return true if the velocity is high enough to fling
+     */
+    public boolean start(float velocity) {
+        mVelocity = velocity;
+        mActive = Math.abs(velocity) >= mMinVelocity;
+        return mActive;
+    }
+
+    /**
+     * Advance the fling
+     * @param dtMillis time since the previous step
+     * @return angle travelled during the step, in degrees
+     */
+    public float step(float dtMillis) {
+        if (!mActive || dtMillis <= 0) {
+            return 0;
+        }
+        double distance;
+        if (mFriction > 0) {
+            double rate = mFriction / 1000.0;
+            double decay = Math.exp(-rate * dtMillis);
+            distance = mVelocity * (1 - decay) / rate;
+            mVelocity *= decay;
+        } else {
+            distance = mVelocity * dtMillis;
+        }
+        if (Math.abs(mVelocity) < mMinVelocity) {
+            stop();
+        }
+        return (float) distance;
+    }
+
+    public void stop() {
+        mActive = false;
+        mVelocity = 0;
+    }
+
+    public boolean isActive() {
+        return mActive;
+    }
+
+    /**
+     * @return current velocity, in degrees per millisecond
+     */
+    public float getVelocity() {
+        return mVelocity;
+    }
+}
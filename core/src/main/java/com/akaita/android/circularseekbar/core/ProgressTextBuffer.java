@@ -0,0 +1,200 @@
+package com.akaita.android.circularseekbar.core;
+
+import java.math.RoundingMode;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.text.FieldPosition;
+import java.text.NumberFormat;
+
+/**
+ * Reusable char buffer holding the formatted progress text.
+ * Plain decimal patterns (digits, grouping and decimal separator, no prefix/suffix) are formatted
+ * by hand so that updating the text allocates nothing. Any other format falls back to
+ * {@link NumberFormat#format(double, StringBuffer, FieldPosition)}.
+ */
+public class ProgressTextBuffer {
+
+    private static final int MAX_FAST_FRACTION_DIGITS = 9;
+    private static final long[] POWERS_OF_TEN = {
+            1L, 10L, 100L, 1000L, 10000L, 100000L, 1000000L, 10000000L, 100000000L, 1000000000L
+    };
+    // above this the scaled value no longer fits comfortably in a long
+    private static final double MAX_FAST_SCALED_VALUE = 1e17;
+
+    private NumberFormat mFormat;
+    private final StringBuffer mFallbackBuffer = new StringBuffer();
+    private final FieldPosition mFallbackPosition = new FieldPosition(0);
+
+    // fast path, resolved once per format
+    private boolean mFastPath;
+    private boolean mHalfUp;
+    private int mMinIntegerDigits;
+    private int mMinFractionDigits;
+    private int mMaxFractionDigits;
+    private int mGroupingSize;
+    private boolean mDecimalSeparatorAlwaysShown;
+    private char mZeroDigit;
+    private char mGroupingSeparator;
+    private char mDecimalSeparator;
+    private char mMinusSign;
+
+    private char[] mChars = new char[48];
+    private int mStart;
+    private int mLength;
+    private float mValue;
+    private boolean mValid = false;
+
+    public ProgressTextBuffer(NumberFormat format) {
+        setFormat(format);
+    }
+
+    /**
+     * Changes made to the format after it has been set are not picked up until it is set again
+     * @param format
+     */
+    public void setFormat(NumberFormat format) {
+        mFormat = format;
+        mFastPath = false;
+        mValid = false;
+
+        if (!(format instanceof DecimalFormat)) {
+            return;
+        }
+        DecimalFormat df = (DecimalFormat) format;
+        DecimalFormatSymbols symbols = df.getDecimalFormatSymbols();
+        RoundingMode roundingMode = df.getRoundingMode();
+        if (df.getPositivePrefix().length() != 0
+                || df.getPositiveSuffix().length() != 0
+                || !df.getNegativePrefix().equals(String.valueOf(symbols.getMinusSign()))
+                || df.getNegativeSuffix().length() != 0
+                || df.getMultiplier() != 1
+                || df.toPattern().indexOf('E') >= 0
+                || df.getMaximumFractionDigits() > MAX_FAST_FRACTION_DIGITS
+                || (roundingMode != RoundingMode.HALF_EVEN && roundingMode != RoundingMode.HALF_UP)) {
+            return;
+        }
+
+        mHalfUp = roundingMode == RoundingMode.HALF_UP;
+        mMinIntegerDigits = Math.min(df.getMinimumIntegerDigits(), 19);
+        mMaxFractionDigits = df.getMaximumFractionDigits();
+        mMinFractionDigits = Math.min(df.getMinimumFractionDigits(), mMaxFractionDigits);
+        mGroupingSize = df.isGroupingUsed() ? df.getGroupingSize() : 0;
+        mDecimalSeparatorAlwaysShown = df.isDecimalSeparatorAlwaysShown();
+        mZeroDigit = symbols.getZeroDigit();
+        mGroupingSeparator = symbols.getGroupingSeparator();
+        mDecimalSeparator = symbols.getDecimalSeparator();
+        mMinusSign = symbols.getMinusSign();
+        mFastPath = true;
+    }
+
+    /**
+     * Format the given value into the buffer, unless it is already holding it
+     * @param value
+     * @return true if the content of the buffer changed
+     */
+    public boolean update(float value) {
+        if (mValid && Float.floatToIntBits(value) == Float.floatToIntBits(mValue)) {
+            return false;
+        }
+        if (!(mFastPath && formatFast(value))) {
+            formatFallback(value);
+        }
+        mValue = value;
+        mValid = true;
+        return true;
+    }
+
+    /**
+     * @return the smallest progress change the format can display, or 0 if it shows every change
+     */
+    public static float getDisplayedPrecision(NumberFormat format) {
+        int fractionDigits = format.getMaximumFractionDigits();
+        if (fractionDigits > MAX_FAST_FRACTION_DIGITS) {
+            return 0;
+        }
+        double precision = 1.0 / POWERS_OF_TEN[fractionDigits];
+        if (format instanceof DecimalFormat) {
+            precision /= Math.abs(((DecimalFormat) format).getMultiplier());
+        }
+        return (float) precision;
+    }
+
+    public char[] getChars() {
+        return mChars;
+    }
+
+    public int getStart() {
+        return mStart;
+    }
+
+    public int getLength() {
+        return mLength;
+    }
+
+    @Override
+    public String toString() {
+        return new String(mChars, mStart, mLength);
+    }
+
+    private boolean formatFast(float value) {
+        if (Float.isNaN(value) || Float.isInfinite(value)) {
+            return false;
+        }
+        boolean negative = value < 0 || (value == 0 && Float.floatToRawIntBits(value) != 0);
+        double scaled = Math.abs((double) value) * POWERS_OF_TEN[mMaxFractionDigits];
+        if (scaled >= MAX_FAST_SCALED_VALUE) {
+            return false;
+        }
+        long rounded = (long) (mHalfUp ? Math.floor(scaled + 0.5) : Math.rint(scaled));
+        long integer = rounded / POWERS_OF_TEN[mMaxFractionDigits];
+        long fraction = rounded % POWERS_OF_TEN[mMaxFractionDigits];
+
+        int fractionDigits = mMaxFractionDigits;
+        while (fractionDigits > mMinFractionDigits && fraction % 10 == 0) {
+            fraction /= 10;
+            fractionDigits--;
+        }
+
+        // write backwards from the end of the buffer
+        char[] chars = mChars;
+        int pos = chars.length;
+        for (int i = 0; i < fractionDigits; i++) {
+            chars[--pos] = (char) (mZeroDigit + fraction % 10);
+            fraction /= 10;
+        }
+        if (fractionDigits > 0 || mDecimalSeparatorAlwaysShown) {
+            chars[--pos] = mDecimalSeparator;
+        }
+        int integerDigits = 0;
+        while (integer > 0 || integerDigits < mMinIntegerDigits) {
+            if (mGroupingSize > 0 && integerDigits > 0 && integerDigits % mGroupingSize == 0) {
+                chars[--pos] = mGroupingSeparator;
+            }
+            chars[--pos] = (char) (mZeroDigit + integer % 10);
+            integer /= 10;
+            integerDigits++;
+        }
+        if (integerDigits == 0 && fractionDigits == 0) {
+            chars[--pos] = mZeroDigit;
+        }
+        if (negative) {
+            chars[--pos] = mMinusSign;
+        }
+
+        mStart = pos;
+        mLength = chars.length - pos;
+        return true;
+    }
+
+    private void formatFallback(float value) {
+        mFallbackBuffer.setLength(0);
+        mFormat.format(value, mFallbackBuffer, mFallbackPosition);
+        int length = mFallbackBuffer.length();
+        if (length > mChars.length) {
+            mChars = new char[length];
+        }
+        mFallbackBuffer.getChars(0, length, mChars, 0);
+        mStart = 0;
+        mLength = length;
+    }
+}
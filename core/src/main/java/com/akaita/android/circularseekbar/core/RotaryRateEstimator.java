@@ -0,0 +1,44 @@
+package com.akaita.android.circularseekbar.core;
+
+/**
+ * Estimates how fast a rotary input (crown, bezel) is being turned. Such inputs report discrete
+ * detents at irregular times, so the rate is smoothed across events and restarts after a pause:
+ * a single click after a pause counts as a slow turn, a quick spin as a fast one.
+ */
+final class RotaryRateEstimator {
+    // a gap this long means the previous turn ended
+    private static final long PAUSE_MS = 100;
+    // shorter intervals are batched events, not a faster turn
+    private static final long MIN_INTERVAL_MS = 4;
+    private static final float SMOOTHING = 0.6f;
+
+    private long mLastTime = -1;
+    private float mRate = 0;
+
+    /**
+     * @param degrees rotation reported by the event, positive clockwise
+     * @param eventTime in milliseconds
+     * @return the estimated rate, in degrees per millisecond
+     */
+    float add(float degrees, long eventTime) {
+        long interval = mLastTime < 0 ? -1 : eventTime - mLastTime;
+        mLastTime = eventTime;
+        if (interval < 0 || interval > PAUSE_MS) {
+            mRate = degrees / PAUSE_MS;
+            return mRate;
+        }
+        float rate = degrees / Math.max(interval, MIN_INTERVAL_MS);
+        if ((rate < 0) != (mRate < 0)) {
+            // turning back starts over
+            mRate = rate;
+        } else {
+            mRate = mRate * SMOOTHING + rate * (1 - SMOOTHING);
+        }
+        return mRate;
+    }
+
+    void clear() {
+        mLastTime = -1;
+        mRate = 0;
+    }
+}
@@ -0,0 +1,530 @@
+package com.akaita.android.circularseekbar.core;
+
+/**
+ * Gesture and value logic of the CircularSeekBar, free of any Android dependency.
+ * It is fed with primitive (x, y, time) pointer samples and keeps the geometry, the touch state
+ * and the progress. Renderers and views only need to draw its state and dispatch its results.
+ */
+public class SeekBarEngine {
+
+    // same values as android.view.MotionEvent
+    public static final int ACTION_DOWN = 0;
+    public static final int ACTION_UP = 1;
+    public static final int ACTION_MOVE = 2;
+    public static final int ACTION_CANCEL = 3;
+
+    /**
+     * The sample didn't change the state of the engine
+     */
+    public static final int RESULT_NONE = 0;
+    /**
+     * The user started touching the ring
+     */
+    public static final int RESULT_START = 1;
+    /**
+     * The user moved across the ring, the progress has been updated
+     */
+    public static final int RESULT_MOVE = 2;
+    /**
+     * The user stopped touching the ring
+     */
+    public static final int RESULT_STOP = 3;
+    /**
+     * The sample was outside of the ring, touch tracking has been reset
+     */
+    public static final int RESULT_OUTSIDE = 4;
+
+    private static final float DEFAULT_EVENT_INTERVAL_MS = 16f;
+    // a finger resting this long before being lifted doesn't fling
+    private static final long RELEASE_PAUSE_MS = 40;
+
+    private float mMinValue = 0f;
+    private float mMaxValue = 100f;
+    private float mSpeedMultiplier = 1f;
+    private float mProgress = 0f;
+    // where the progress is along the value scale, 0-1, unquantised so that changes smaller than a step still add up
+    private double mPosition = 0;
+    private float mStepSize = 0f;
+    private ValueScale mValueScale = ValueScale.linear();
+    private final ValueTable mValueTable = new ValueTable();
+    private AccelerationCurve mAccelerationCurve = AccelerationCurve.linear();
+    private final AccelerationTable mAccelerationTable = new AccelerationTable();
+    private float mRingWidthFactor = 0.5f;
+
+    private int mWidth = 0;
+    private int mHeight = 0;
+    private float mCenterX = 0f;
+    private float mCenterY = 0f;
+    private float mOuterCircleRadius = 0f;
+    private float mInnerCircleRadius = 0f;
+    // for hit-testing without square roots
+    private float mOuterRadiusSquared = 0f;
+    private float mInnerRadiusSquared = 0f;
+
+    private boolean mTouching = false;
+    private float mTouchAngle = 0f;
+    private final AngularVelocityTracker mAngularVelocityTracker;
+    private AngleKernel mAngleKernel = AngleKernel.exact();
+
+    // typical time between two move events, to turn per-event progress changes into per-millisecond ones
+    private float mEventIntervalMs = DEFAULT_EVENT_INTERVAL_MS;
+    private long mLastMoveTime = -1;
+    private float mReleaseVelocity = 0f;
+    private final FlingSimulator mFling = new FlingSimulator();
+    // acceleration of the whole fling, taken at the release velocity
+    private float mFlingGain = 1f;
+    private final RotaryRateEstimator mRotaryRate = new RotaryRateEstimator();
+
+    public SeekBarEngine() {
+        this(AngularVelocityTracker.STRATEGY_LEAST_SQUARES);
+    }
+
+    public SeekBarEngine(int velocityStrategy) {
+        mAngularVelocityTracker = new AngularVelocityTracker(mCenterX, mCenterY, velocityStrategy);
+        mValueTable.build(mValueScale, mMinValue, mMaxValue);
+        mAccelerationTable.build(mAccelerationCurve);
+    }
+
+    //region Geometry
+    /**
+     * Size of the area the seek bar is drawn into. The ring is centred and as big as possible
+     * @param width
+     * @param height
+     */
+    public void setSize(int width, int height) {
+        mWidth = width;
+        mHeight = height;
+        mCenterX = width / 2;
+        mCenterY = height / 2;
+        mOuterCircleRadius = Math.min(width, height) / 2f;
+        updateInnerCircleRadius();
+        mOuterRadiusSquared = mOuterCircleRadius * mOuterCircleRadius;
+        mAngularVelocityTracker.setCentre(mCenterX, mCenterY);
+    }
+
+    public int getWidth() {
+        return mWidth;
+    }
+
+    public int getHeight() {
+        return mHeight;
+    }
+
+    public float getCenterX() {
+        return mCenterX;
+    }
+
+    public float getCenterY() {
+        return mCenterY;
+    }
+
+    public float getDiameter() {
+        return mOuterCircleRadius * 2f;
+    }
+
+    public float getOuterCircleRadius() {
+        return mOuterCircleRadius;
+    }
+
+    public float getInnerCircleRadius() {
+        return mInnerCircleRadius;
+    }
+
+    /**
+     * @param factor thickness of the ring relative to the outer radius, 0-1
+     */
+    public void setRingWidthFactor(float factor) {
+        mRingWidthFactor = factor;
+        updateInnerCircleRadius();
+    }
+
+    public float getRingWidthFactor() {
+        return mRingWidthFactor;
+    }
+
+    /**
+     * return angle relative to the center for the given point in degrees.
+     *
+     * @param x
+     * @param y
+     * @return angle in degrees, -180 to 180. 0° is NORTH
+     */
+    public float getAngle(float x, float y) {
+        return -mAngleKernel.atan2Degrees(mCenterX - x, mCenterY - y);
+    }
+
+    /**
+     * @param kernel used for every angle computed from a touch, see {@link AngleKernel}
+     */
+    public void setAngleKernel(AngleKernel kernel) {
+        mAngleKernel = kernel;
+        mAngularVelocityTracker.setAngleKernel(kernel);
+    }
+
+    public AngleKernel getAngleKernel() {
+        return mAngleKernel;
+    }
+
+    public float distanceToCenter(float x, float y) {
+        float dx = x - mCenterX;
+        float dy = y - mCenterY;
+        return (float) Math.sqrt(dx * dx + dy * dy);
+    }
+
+    /**
+     * @return true if the point is on the touchable ring
+     */
+    public boolean isOnRing(float x, float y) {
+        float distanceSquared = distanceToCenterSquared(x, y);
+        return distanceSquared >= mInnerRadiusSquared && distanceSquared < mOuterRadiusSquared;
+    }
+
+    /**
+     * @return true if the point is inside the inner circle
+     */
+    public boolean isInCenter(float x, float y) {
+        return distanceToCenterSquared(x, y) <= mInnerRadiusSquared;
+    }
+
+    private float distanceToCenterSquared(float x, float y) {
+        float dx = x - mCenterX;
+        float dy = y - mCenterY;
+        return dx * dx + dy * dy;
+    }
+
+    private void updateInnerCircleRadius() {
+        mInnerCircleRadius = mOuterCircleRadius * (1 - mRingWidthFactor);
+        mInnerRadiusSquared = mInnerCircleRadius * mInnerCircleRadius;
+    }
+    //endregion
+
+    //region Touches
+    /**
+     * Add a batched (historical) sample of the next {@link #ACTION_MOVE}. They only contribute
+     * to the velocity if that move lands on the ring.
+     * @param x
+     * @param y
+     * @param eventTime in milliseconds
+     */
+    public void addHistoricalSample(float x, float y, long eventTime) {
+        mAngularVelocityTracker.addAngle(getAngle(x, y), eventTime);
+    }
+
+    /**
+     * Feed a pointer sample
+     * @param action one of the ACTION_ constants
+     * @param x
+     * @param y
+     * @param eventTime in milliseconds
+     * @return one of the RESULT_ constants
+     */
+    public int onTouch(int action, float x, float y, long eventTime) {
+        if (action == ACTION_DOWN) {
+            // any new touch catches a fling
+            mFling.stop();
+            mLastMoveTime = -1;
+            mReleaseVelocity = 0;
+        }
+
+        // touch gestures only work when touches are made exactly on the bar/arc
+        if (!isOnRing(x, y)) {
+            mTouching = false;
+            mAngularVelocityTracker.clear();
+            return RESULT_OUTSIDE;
+        }
+
+        switch (action) {
+            case ACTION_DOWN:
+                mTouching = true;
+                // every gesture starts from the value on display
+                mPosition = mValueTable.toPosition(mProgress);
+                mAngularVelocityTracker.clear();
+                updateProgress(getAngle(x, y), mAngularVelocityTracker.getAngularVelocity());
+                return RESULT_START;
+            case ACTION_MOVE:
+                mTouching = true;
+                trackEventInterval(eventTime);
+                // computed once, shared by the velocity tracker and the indicator
+                float angle = getAngle(x, y);
+                mAngularVelocityTracker.addAngle(angle, eventTime);
+                updateProgress(angle, mAngularVelocityTracker.getAngularVelocity());
+                return RESULT_MOVE;
+            case ACTION_UP:
+                boolean resting = mLastMoveTime < 0 || eventTime - mLastMoveTime > RELEASE_PAUSE_MS;
+                mReleaseVelocity = resting ? 0 : mAngularVelocityTracker.getAngularVelocity();
+                mTouching = false;
+                mAngularVelocityTracker.clear();
+                return RESULT_STOP;
+            case ACTION_CANCEL:
+                mReleaseVelocity = 0;
+                mTouching = false;
+                mAngularVelocityTracker.clear();
+                return RESULT_STOP;
+            default:
+                return RESULT_NONE;
+        }
+    }
+
+    /**
+     * Forget the touch in progress
+     */
+    public void resetTouch() {
+        mTouching = false;
+        mAngularVelocityTracker.clear();
+    }
+
+    public boolean isTouching() {
+        return mTouching;
+    }
+
+    /**
+     * @return angle of the last touch on the ring, in degrees. 0° is NORTH
+     */
+    public float getTouchAngle() {
+        return mTouchAngle;
+    }
+
+    public void setVelocityStrategy(int strategy) {
+        mAngularVelocityTracker.setStrategy(strategy);
+    }
+
+    public int getVelocityStrategy() {
+        return mAngularVelocityTracker.getStrategy();
+    }
+
+    /**
+     * @return angular velocity of the finger when it was last lifted from the ring, in degrees per millisecond
+     */
+    public float getReleaseVelocity() {
+        return mReleaseVelocity;
+    }
+
+    private void trackEventInterval(long eventTime) {
+        if (mLastMoveTime >= 0) {
+            long interval = eventTime - mLastMoveTime;
+            // ignore pauses, they are not the rate of the digitizer
+            if (interval > 0 && interval < 100) {
+                mEventIntervalMs = mEventIntervalMs * 0.8f + interval * 0.2f;
+            }
+        }
+        mLastMoveTime = eventTime;
+    }
+    //endregion
+
+    //region Rotary
+    /**
+     * Feed a rotary input event, e.g. from a watch crown. It goes through the same acceleration curve,
+     * speed multiplier, value scale and step as touches, at the rate the input is being turned
+     * @param degrees rotation reported by the event, positive clockwise
+     * @param eventTime in milliseconds
+     */
+    public void onRotary(float degrees, long eventTime) {
+        mFling.stop();
+        float rate = mRotaryRate.add(degrees, eventTime);
+        // the rotation is spread over a nominal move event. Not the measured touch interval: a detent must
+        // move the same amount whatever digitizer the ring was last dragged on
+        movePosition(mAccelerationTable.gain(rate) * degrees / DEFAULT_EVENT_INTERVAL_MS * mSpeedMultiplier / 100.0);
+    }
+
+    /**
+     * Forget the rate of the last rotary turn, e.g. when it is considered finished
+     */
+    public void resetRotary() {
+        mRotaryRate.clear();
+    }
+    //endregion
+
+    //region Fling
+    /**
+     * @param friction exponential decay rate of the fling velocity, per second
+     */
+    public void setFlingFriction(float friction) {
+        mFling.setFriction(friction);
+    }
+
+    public float getFlingFriction() {
+        return mFling.getFriction();
+    }
+
+    /**
+     * Keep the progress moving at the rate it had when the finger was lifted, slowing down with friction
+     * @return true if the release was fast enough to fling
+     */
+    public boolean startFling() {
+        mFlingGain = mAccelerationTable.gain(mReleaseVelocity);
+        return mFling.start(mReleaseVelocity);
+    }
+
+    /**
+     * Advance the fling and update the progress accordingly
+     * @param dtMillis time since the previous step
+     * @return true if the fling is still running
+     */
+    public boolean stepFling(float dtMillis) {
+        if (!mFling.isActive()) {
+            return false;
+        }
+        float degrees = mFling.step(dtMillis);
+        // same conversion as updateProgress, spread over the time a move event takes. The gain is the one of
+        // the release: accelerating each step by its own length would make the travel depend on the frame rate
+        movePosition(mFlingGain * degrees / mEventIntervalMs * mSpeedMultiplier / 100.0);
+        if (mPosition == 0 || mPosition == 1) {
+            mFling.stop();
+        }
+        return mFling.isActive();
+    }
+
+    public void stopFling() {
+        mFling.stop();
+    }
+
+    public boolean isFlinging() {
+        return mFling.isActive();
+    }
+    //endregion
+
+    //region Value
+    public void setMin(float min) {
+        mMinValue = min;
+        onRangeChanged();
+    }
+
+    public float getMin() {
+        return mMinValue;
+    }
+
+    public void setMax(float max) {
+        mMaxValue = max;
+        onRangeChanged();
+    }
+
+    public float getMax() {
+        return mMaxValue;
+    }
+
+    /**
+     * @param speedMultiplier 0-1 to decrease change, 1+ to increase change
+     */
+    public void setSpeedMultiplier(float speedMultiplier) {
+        mSpeedMultiplier = speedMultiplier;
+    }
+
+    public float getSpeedMultiplier() {
+        return mSpeedMultiplier;
+    }
+
+    /**
+     * @param curve how the speed of a turn maps to the speed of the progress, before the speed multiplier.
+     *              See {@link AccelerationCurve}
+     */
+    public void setAccelerationCurve(AccelerationCurve curve) {
+        mAccelerationCurve = curve;
+        mAccelerationTable.build(curve);
+    }
+
+    public AccelerationCurve getAccelerationCurve() {
+        return mAccelerationCurve;
+    }
+
+    public void setProgress(float progress) {
+        mPosition = mValueTable.toPosition(progress);
+        mProgress = quantize(progress);
+    }
+
+    /**
+     * @return where the progress is along the value scale, 0 at min and 1 at max
+     */
+    public double getPosition() {
+        return mPosition;
+    }
+
+    /**
+     * @param scale how the position, which touches move, maps to values. See {@link ValueScale}
+     */
+    public void setValueScale(ValueScale scale) {
+        mValueScale = scale;
+        onRangeChanged();
+    }
+
+    public ValueScale getValueScale() {
+        return mValueScale;
+    }
+
+    public float getProgress() {
+        return mProgress;
+    }
+
+    /**
+     * update state with the given touch position
+     *
+     * @param x
+     * @param y
+     * @param speed angular velocity, in degrees per millisecond
+     */
+    public void updateProgress(float x, float y, float speed) {
+        updateProgress(getAngle(x, y), speed);
+    }
+
+    private void updateProgress(float touchAngle, float speed) {
+        mTouchAngle = touchAngle;
+
+        moveBy(speed);
+    }
+
+    /**
+     * Move along the scale. A turn of 100 degrees per millisecond, after acceleration and at speedMultiplier 1,
+     * covers the whole range
+     * @param speed in degrees per millisecond
+     */
+    private void moveBy(float speed) {
+        movePosition(mAccelerationTable.apply(speed) * mSpeedMultiplier / 100.0);
+    }
+
+    private void movePosition(double delta) {
+        mPosition = Math.max(0, Math.min(1, mPosition + delta));
+        mProgress = quantize((float) mValueTable.toValue(mPosition));
+    }
+
+    /**
+     * Rebuild the value table, keeping the progress where it was
+     */
+    private void onRangeChanged() {
+        mValueTable.build(mValueScale, mMinValue, mMaxValue);
+        mPosition = mValueTable.toPosition(mProgress);
+        mProgress = quantize(mProgress);
+    }
+
+    /**
+     * Limit the progress to multiples of the step, counted from min
+     * @param stepSize 0 for a continuous progress
+     */
+    public void setStepSize(float stepSize) {
+        mStepSize = Math.max(stepSize, 0);
+        mProgress = quantize((float) mValueTable.toValue(mPosition));
+    }
+
+    public float getStepSize() {
+        return mStepSize;
+    }
+
+    /**
+     * @return the value rounded to the nearest step, within the min-max range
+     */
+    public float quantize(float value) {
+        if (mStepSize <= 0) {
+            return value;
+        }
+        double steps = Math.rint((value - mMinValue) / (double) mStepSize);
+        return clamp((float) (mMinValue + steps * mStepSize));
+    }
+
+    /**
+     * @return the value limited to the min-max range
+     */
+    public float clamp(float value) {
+        value = Math.min(value, mMaxValue);
+        value = Math.max(value, mMinValue);
+        return value;
+    }
+    //endregion
+}
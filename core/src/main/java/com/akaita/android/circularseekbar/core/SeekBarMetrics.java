@@ -0,0 +1,262 @@
+package com.akaita.android.circularseekbar.core;
+
+/**
+ * Primitive counters of how a seek bar performs: draw duration, input-to-frame latency, input events
+ * per frame, listener dispatch duration, and redraws skipped or coalesced. Recording is a few field
+ * updates and never allocates; {@link #snapshot(Snapshot)} copies the counters out, for telemetry.
+ * <p>
+ * Not thread-safe: record and snapshot on one thread.
+ */
+public final class SeekBarMetrics {
+
+    private long mDrawCount;
+    private long mDrawNanos;
+    private long mMaxDrawNanos;
+
+    private long mFrameCount;
+    private long mInputFrameCount;
+    private long mEventCount;
+    private long mInputFrameEventCount;
+    private int mWaitingEventCount;
+    private long mFirstWaitingEventTime;
+    private int mFrameEventCount;
+    private int mMaxEventsPerFrame;
+    private long mFirstFrameEventTime;
+    private long mLatencyMillis;
+    private long mMaxLatencyMillis;
+
+    private long mDispatchCount;
+    private long mDispatchNanos;
+    private long mMaxDispatchNanos;
+    private long mCoalescedUpdateCount;
+
+    private long mSkippedRedrawCount;
+    private long mPartialRedrawCount;
+
+    /**
+     * An input event (touch or rotary) arrived. It waits for {@link #recordFrameRequest()} or
+     * {@link #recordSkippedRedraw()}: only events which asked for a frame count towards latency
+     * @param eventTimeMillis when it happened, in the uptime timebase
+     */
+    public void recordEvent(long eventTimeMillis) {
+        if (mWaitingEventCount == 0) {
+            mFirstWaitingEventTime = eventTimeMillis;
+        }
+        mWaitingEventCount++;
+        mEventCount++;
+    }
+
+    /**
+     * The events recorded since the last request or skip asked for the next frame
+     */
+    public void recordFrameRequest() {
+        if (mWaitingEventCount == 0) {
+            return;
+        }
+        if (mFrameEventCount == 0) {
+            mFirstFrameEventTime = mFirstWaitingEventTime;
+        }
+        mFrameEventCount += mWaitingEventCount;
+        mWaitingEventCount = 0;
+    }
+
+    /**
+     * A frame was drawn
+     * @param drawNanos time spent drawing it
+     * @param nowMillis when it finished, in the uptime timebase
+     */
+    public void recordDraw(long drawNanos, long nowMillis) {
+        mDrawCount++;
+        mDrawNanos += drawNanos;
+        mMaxDrawNanos = Math.max(mMaxDrawNanos, drawNanos);
+
+        mFrameCount++;
+        if (mFrameEventCount > 0) {
+            // the oldest event waited the longest for this frame
+            long latency = nowMillis - mFirstFrameEventTime;
+            mInputFrameCount++;
+            mInputFrameEventCount += mFrameEventCount;
+            mLatencyMillis += latency;
+            mMaxLatencyMillis = Math.max(mMaxLatencyMillis, latency);
+            mMaxEventsPerFrame = Math.max(mMaxEventsPerFrame, mFrameEventCount);
+            mFrameEventCount = 0;
+        }
+    }
+
+    /**
+     * The listener was called
+     * @param dispatchNanos time the listener took
+     * @param mergedUpdates number of progress changes the call represents
+     */
+    public void recordDispatch(long dispatchNanos, int mergedUpdates) {
+        mDispatchCount++;
+        mDispatchNanos += dispatchNanos;
+        mMaxDispatchNanos = Math.max(mMaxDispatchNanos, dispatchNanos);
+        mCoalescedUpdateCount += Math.max(0, mergedUpdates - 1);
+    }
+
+    /**
+     * Nothing visible changed: the events recorded since the last request or skip need no frame
+     */
+    public void recordSkippedRedraw() {
+        mSkippedRedrawCount++;
+        mWaitingEventCount = 0;
+    }
+
+    /**
+     * Only part of the seek bar is redrawn. Also a {@link #recordFrameRequest()}
+     */
+    public void recordPartialRedraw() {
+        mPartialRedrawCount++;
+        recordFrameRequest();
+    }
+
+    /**
+     * Copy the counters into out
+     */
+    public void snapshot(Snapshot out) {
+        out.mDrawCount = mDrawCount;
+        out.mDrawNanos = mDrawNanos;
+        out.mMaxDrawNanos = mMaxDrawNanos;
+        out.mFrameCount = mFrameCount;
+        out.mInputFrameCount = mInputFrameCount;
+        out.mEventCount = mEventCount;
+        out.mInputFrameEventCount = mInputFrameEventCount;
+        out.mMaxEventsPerFrame = mMaxEventsPerFrame;
+        out.mLatencyMillis = mLatencyMillis;
+        out.mMaxLatencyMillis = mMaxLatencyMillis;
+        out.mDispatchCount = mDispatchCount;
+        out.mDispatchNanos = mDispatchNanos;
+        out.mMaxDispatchNanos = mMaxDispatchNanos;
+        out.mCoalescedUpdateCount = mCoalescedUpdateCount;
+        out.mSkippedRedrawCount = mSkippedRedrawCount;
+        out.mPartialRedrawCount = mPartialRedrawCount;
+    }
+
+    /**
+     * Start counting from zero. Events waiting for a frame are kept
+     */
+    public void reset() {
+        mDrawCount = 0;
+        mDrawNanos = 0;
+        mMaxDrawNanos = 0;
+        mFrameCount = 0;
+        mInputFrameCount = 0;
+        mEventCount = 0;
+        mInputFrameEventCount = 0;
+        mMaxEventsPerFrame = 0;
+        mLatencyMillis = 0;
+        mMaxLatencyMillis = 0;
+        mDispatchCount = 0;
+        mDispatchNanos = 0;
+        mMaxDispatchNanos = 0;
+        mCoalescedUpdateCount = 0;
+        mSkippedRedrawCount = 0;
+        mPartialRedrawCount = 0;
+    }
+
+    /**
+     * Counters at one point in time. Reusable: {@link SeekBarMetrics#snapshot(Snapshot)} overwrites it
+     */
+    public static final class Snapshot {
+        long mDrawCount;
+        long mDrawNanos;
+        long mMaxDrawNanos;
+        long mFrameCount;
+        long mInputFrameCount;
+        long mEventCount;
+        long mInputFrameEventCount;
+        int mMaxEventsPerFrame;
+        long mLatencyMillis;
+        long mMaxLatencyMillis;
+        long mDispatchCount;
+        long mDispatchNanos;
+        long mMaxDispatchNanos;
+        long mCoalescedUpdateCount;
+        long mSkippedRedrawCount;
+        long mPartialRedrawCount;
+
+        public long getDrawCount() {
+            return mDrawCount;
+        }
+
+        public long getMeanDrawNanos() {
+            return mDrawCount == 0 ? 0 : mDrawNanos / mDrawCount;
+        }
+
+        public long getMaxDrawNanos() {
+            return mMaxDrawNanos;
+        }
+
+        /**
+         * @return number of input events (touch or rotary)
+         */
+        public long getEventCount() {
+            return mEventCount;
+        }
+
+        /**
+         * @return mean number of input events handled per frame, over the frames which had any. Events which
+         * needed no frame don't count
+         */
+        public float getMeanEventsPerFrame() {
+            return mInputFrameCount == 0 ? 0 : (float) mInputFrameEventCount / mInputFrameCount;
+        }
+
+        public int getMaxEventsPerFrame() {
+            return mMaxEventsPerFrame;
+        }
+
+        /**
+         * @return mean time from the first input event of a frame to the end of its draw
+         */
+        public long getMeanLatencyMillis() {
+            return mInputFrameCount == 0 ? 0 : mLatencyMillis / mInputFrameCount;
+        }
+
+        public long getMaxLatencyMillis() {
+            return mMaxLatencyMillis;
+        }
+
+        public long getDispatchCount() {
+            return mDispatchCount;
+        }
+
+        public long getMeanDispatchNanos() {
+            return mDispatchCount == 0 ? 0 : mDispatchNanos / mDispatchCount;
+        }
+
+        public long getMaxDispatchNanos() {
+            return mMaxDispatchNanos;
+        }
+
+        /**
+         * @return progress changes merged into other listener calls instead of getting their own
+         */
+        public long getCoalescedUpdateCount() {
+            return mCoalescedUpdateCount;
+        }
+
+        public long getSkippedRedrawCount() {
+            return mSkippedRedrawCount;
+        }
+
+        public long getPartialRedrawCount() {
+            return mPartialRedrawCount;
+        }
+
+        @Override
+        public String toString() {
+            return "draws=" + mDrawCount
+                    + " drawNanos(mean/max)=" + getMeanDrawNanos() + "/" + mMaxDrawNanos
+                    + " events=" + mEventCount
+                    + " eventsPerFrame(mean/max)=" + getMeanEventsPerFrame() + "/" + mMaxEventsPerFrame
+                    + " latencyMillis(mean/max)=" + getMeanLatencyMillis() + "/" + mMaxLatencyMillis
+                    + " dispatches=" + mDispatchCount
+                    + " dispatchNanos(mean/max)=" + getMeanDispatchNanos() + "/" + mMaxDispatchNanos
+                    + " coalesced=" + mCoalescedUpdateCount
+                    + " skippedRedraws=" + mSkippedRedrawCount
+                    + " partialRedraws=" + mPartialRedrawCount;
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.akaita.android.circularseekbar.core;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * A touch stream as received by a seek bar, historical samples included, so that a gesture can be
+ * replayed exactly with {@link TouchReplay}.
+ * <p>
+ * Binary format, big-endian:
+ * <pre>
+ * int    magic "CSBT"
+ * byte   version (1)
+ * int    width, int height    size of the view, in pixels
+ * long   time of the first sample, in milliseconds
+ * int    number of samples
+ * per sample:
+ *   byte    action: a SeekBarEngine ACTION_ constant, or -1 for a historical sample
+ *   float   x, float y
+ *   varint  milliseconds since the previous sample, zigzag encoded
+ * </pre>
+ * A 120Hz sample takes 10 bytes.
+ */
+public final class TouchRecording {
+
+    /**
+     * Batched sample of the next {@link SeekBarEngine#ACTION_MOVE}
+     */
+    public static final int ACTION_HISTORICAL = TouchSampleQueue.ACTION_HISTORICAL;
+
+    private static final int MAGIC = 0x43534254;
+    private static final int VERSION = 1;
+
+    private final int mWidth;
+    private final int mHeight;
+    private int mSize = 0;
+    private byte[] mActions = new byte[256];
+    private float[] mXs = new float[256];
+    private float[] mYs = new float[256];
+    private long[] mEventTimes = new long[256];
+
+    /**
+     * @param width of the view the touches were made on
+     * @param height
+     */
+    public TouchRecording(int width, int height) {
+        mWidth = width;
+        mHeight = height;
+    }
+
+    public void add(int action, float x, float y, long eventTime) {
+        if (mSize == mActions.length) {
+            grow();
+        }
+        mActions[mSize] = (byte) action;
+        mXs[mSize] = x;
+        mYs[mSize] = y;
+        mEventTimes[mSize] = eventTime;
+        mSize++;
+    }
+
+    public void clear() {
+        mSize = 0;
+    }
+
+    public int getWidth() {
+        return mWidth;
+    }
+
+    public int getHeight() {
+        return mHeight;
+    }
+
+    /**
+     * @return number of samples
+     */
+    public int size() {
+        return mSize;
+    }
+
+    public int getAction(int index) {
+        return mActions[index];
+    }
+
+    public float getX(int index) {
+        return mXs[index];
+    }
+
+    public float getY(int index) {
+        return mYs[index];
+    }
+
+    public long getEventTime(int index) {
+        return mEventTimes[index];
+    }
+
+    public void write(OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(MAGIC);
+        data.writeByte(VERSION);
+        data.writeInt(mWidth);
+        data.writeInt(mHeight);
+        long previousTime = mSize > 0 ? mEventTimes[0] : 0;
+        data.writeLong(previousTime);
+        data.writeInt(mSize);
+        for (int i = 0; i < mSize; i++) {
+            data.writeByte(mActions[i]);
+            data.writeFloat(mXs[i]);
+            data.writeFloat(mYs[i]);
+            long delta = mEventTimes[i] - previousTime;
+            writeVarLong(data, (delta << 1) ^ (delta >> 63));
+            previousTime = mEventTimes[i];
+        }
+        data.flush();
+    }
+
+    /**
+     * @throws IOException if the stream is not a recording of a known version
+     */
+    public static TouchRecording read(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        if (data.readInt() != MAGIC) {
+            throw new IOException("Not a touch recording");
+        }
+        int version = data.readUnsignedByte();
+        if (version != VERSION) {
+            throw new IOException("Unsupported touch recording version " + version);
+        }
+        TouchRecording recording = new TouchRecording(data.readInt(), data.readInt());
+        long time = data.readLong();
+        int size = data.readInt();
+        if (size < 0) {
+            throw new IOException("Corrupt touch recording");
+        }
+        for (int i = 0; i < size; i++) {
+            byte action = data.readByte();
+            float x = data.readFloat();
+            float y = data.readFloat();
+            long zigzag = readVarLong(data);
+            time += (zigzag >>> 1) ^ -(zigzag & 1);
+            recording.add(action, x, y, time);
+        }
+        return recording;
+    }
+
+    private void grow() {
+        int capacity = mActions.length * 2;
+        byte[] actions = new byte[capacity];
+        float[] xs = new float[capacity];
+        float[] ys = new float[capacity];
+        long[] eventTimes = new long[capacity];
+        System.arraycopy(mActions, 0, actions, 0, mSize);
+        System.arraycopy(mXs, 0, xs, 0, mSize);
+        System.arraycopy(mYs, 0, ys, 0, mSize);
+        System.arraycopy(mEventTimes, 0, eventTimes, 0, mSize);
+        mActions = actions;
+        mXs = xs;
+        mYs = ys;
+        mEventTimes = eventTimes;
+    }
+
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7fL) != 0) {
+            out.writeByte((int) (value & 0x7f) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7f) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Corrupt touch recording");
+    }
+}
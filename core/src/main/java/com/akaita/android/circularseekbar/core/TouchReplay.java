@@ -0,0 +1,108 @@
+package com.akaita.android.circularseekbar.core;
+
+/**
+ * Feeds a {@link TouchRecording} through a {@link SeekBarEngine}, the way the View does, and reports
+ * the progress after every sample and the time each sample took. The trajectory only depends on the
+ * recording and the engine configuration, so a reported gesture replays the same way on any JVM.
+ * <p>
+ * Flings after a release are not simulated: they depend on frame timing, not on the recording.
+ */
+public final class TouchReplay {
+
+    /**
+     * Result of a sample which was not handed to {@link SeekBarEngine#onTouch}: a historical sample
+     */
+    public static final int RESULT_HISTORICAL = -1;
+
+    private TouchReplay() {
+    }
+
+    /**
+     * @param engine configured as the seek bar to reproduce (range, speed, scale...). It is resized to the
+     *               recording and its touch state reset
+     */
+    public static Result replay(TouchRecording recording, SeekBarEngine engine) {
+        final int size = recording.size();
+        final Result result = new Result(size);
+        engine.setSize(recording.getWidth(), recording.getHeight());
+        engine.resetTouch();
+
+        for (int i = 0; i < size; i++) {
+            final int action = recording.getAction(i);
+            final float x = recording.getX(i);
+            final float y = recording.getY(i);
+            final long eventTime = recording.getEventTime(i);
+
+            final long start = System.nanoTime();
+            if (action == TouchRecording.ACTION_HISTORICAL) {
+                engine.addHistoricalSample(x, y, eventTime);
+                result.mResults[i] = RESULT_HISTORICAL;
+            } else {
+                result.mResults[i] = engine.onTouch(action, x, y, eventTime);
+            }
+            result.mEventNanos[i] = System.nanoTime() - start;
+            result.mProgress[i] = engine.getProgress();
+        }
+        return result;
+    }
+
+    public static final class Result {
+        final float[] mProgress;
+        final long[] mEventNanos;
+        final int[] mResults;
+
+        Result(int size) {
+            mProgress = new float[size];
+            mEventNanos = new long[size];
+            mResults = new int[size];
+        }
+
+        public int size() {
+            return mProgress.length;
+        }
+
+        /**
+         * @return progress after the sample
+         */
+        public float getProgress(int index) {
+            return mProgress[index];
+        }
+
+        /**
+         * @return time the engine took for the sample. Not deterministic, unlike the progress
+         */
+        public long getEventNanos(int index) {
+            return mEventNanos[index];
+        }
+
+        /**
+         * @return a SeekBarEngine RESULT_ constant, or {@link #RESULT_HISTORICAL}
+         */
+        public int getResult(int index) {
+            return mResults[index];
+        }
+
+        public float getFinalProgress() {
+            return mProgress.length == 0 ? Float.NaN : mProgress[mProgress.length - 1];
+        }
+
+        /**
+         * @return largest progress change caused by a single sample, the "knob jumps" of bug reports
+         */
+        public float getMaxJump() {
+            float max = 0;
+            for (int i = 1; i < mProgress.length; i++) {
+                max = Math.max(max, Math.abs(mProgress[i] - mProgress[i - 1]));
+            }
+            return max;
+        }
+
+        public long getTotalNanos() {
+            long total = 0;
+            for (long nanos : mEventNanos) {
+                total += nanos;
+            }
+            return total;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.akaita.android.circularseekbar.core;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free single-producer, single-consumer queue of touch samples, for handing touches from the
+ * UI thread to a render thread. Samples are stored in primitive ring buffers, so neither
+ * {@link #offer} nor {@link #poll} allocates, and neither side ever waits for the other.
+ * <p>
+ * Only one thread may offer and only one thread may poll.
+ */
+public final class TouchSampleQueue {
+
+    /**
+     * Action of a batched (historical) sample of the next {@link SeekBarEngine#ACTION_MOVE}, see
+     * {@link SeekBarEngine#addHistoricalSample}
+     */
+    public static final int ACTION_HISTORICAL = -1;
+
+    private final int mMask;
+    private final int[] mActions;
+    private final float[] mXs;
+    private final float[] mYs;
+    private final long[] mEventTimes;
+
+    // written by the consumer only
+    private final AtomicLong mHead = new AtomicLong();
+    // written by the producer only
+    private final AtomicLong mTail = new AtomicLong();
+    private long mDroppedCount = 0;
+
+    // the sample taken by the last successful poll
+    private int mAction;
+    private float mX;
+    private float mY;
+    private long mEventTime;
+
+    /**
+     * @param capacity rounded up to a power of two
+     */
+    public TouchSampleQueue(int capacity) {
+        if (capacity < 1 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("capacity must be 1 to 2^30");
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        mMask = size - 1;
+        mActions = new int[size];
+        mXs = new float[size];
+        mYs = new float[size];
+        mEventTimes = new long[size];
+    }
+
+    public int getCapacity() {
+        return mMask + 1;
+    }
+
+    /**
+     * Producer side
+     * @param action one of the {@link SeekBarEngine} ACTION_ constants, or {@link #ACTION_HISTORICAL}
+     * @return false if the queue is full and the sample was dropped
+     */
+    public boolean offer(int action, float x, float y, long eventTime) {
+        final long tail = mTail.get();
+        if (tail - mHead.get() > mMask) {
+            mDroppedCount++;
+            return false;
+        }
+        final int index = (int) tail & mMask;
+        mActions[index] = action;
+        mXs[index] = x;
+        mYs[index] = y;
+        mEventTimes[index] = eventTime;
+        // publishes the sample: the consumer reads the tail before the arrays
+        mTail.lazySet(tail + 1);
+        return true;
+    }
+
+    /**
+     * Producer side
+     * @return number of samples dropped because the queue was full
+     */
+    public long getDroppedCount() {
+        return mDroppedCount;
+    }
+
+    /**
+     * Consumer side. Take the oldest sample, then read it with {@link #getAction()}, {@link #getX()},
+     * {@link #getY()} and {@link #getEventTime()}
+     * @return false if the queue was empty
+     */
+    public boolean poll() {
+        final long head = mHead.get();
+        if (head == mTail.get()) {
+            return false;
+        }
+        final int index = (int) head & mMask;
+        mAction = mActions[index];
+        mX = mXs[index];
+        mY = mYs[index];
+        mEventTime = mEventTimes[index];
+        // frees the slot: the producer reads the head before writing it again
+        mHead.lazySet(head + 1);
+        return true;
+    }
+
+    /**
+     * Consumer side. Drop every pending sample
+     */
+    public void clear() {
+        mHead.lazySet(mTail.get());
+    }
+
+    /**
+     * @return number of pending samples. Exact only when called from the consumer or the producer thread
+     * while the other one is idle
+     */
+    public int size() {
+        return (int) (mTail.get() - mHead.get());
+    }
+
+    public int getAction() {
+        return mAction;
+    }
+
+    public float getX() {
+        return mX;
+    }
+
+    public float getY() {
+        return mY;
+    }
+
+    public long getEventTime() {
+        return mEventTime;
+    }
+}
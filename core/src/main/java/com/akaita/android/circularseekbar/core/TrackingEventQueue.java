@@ -0,0 +1,182 @@
+package com.akaita.android.circularseekbar.core;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free single-producer, single-consumer queue of listener events (start tracking, progress change,
+ * stop tracking), for handing them from a render thread to the UI thread in the order they happened.
+ * <p>
+ * Progress changes are merged on the producer side: {@link #setProgress} only records the latest value,
+ * which is queued before the next start or stop, or on {@link #flush()}. So a frame queues at most one
+ * progress change between two tracking events, and a gesture's progress always arrives between its start
+ * and its stop. Nothing allocates.
+ * <p>
+ * Only one thread may produce and only one thread may poll.
+ */
+public final class TrackingEventQueue {
+
+    public static final int EVENT_START = 0;
+    public static final int EVENT_PROGRESS = 1;
+    public static final int EVENT_STOP = 2;
+
+    private final int mMask;
+    private final int[] mEvents;
+    private final float[] mProgresses;
+    private final boolean[] mFromUsers;
+
+    // written by the consumer only
+    private final AtomicLong mHead = new AtomicLong();
+    // written by the producer only
+    private final AtomicLong mTail = new AtomicLong();
+    private long mDroppedCount = 0;
+
+    // producer side: last progress queued, and the change waiting to be queued
+    private float mQueuedProgress;
+    private float mPendingProgress;
+    private boolean mPendingFromUser;
+    private boolean mHasPending = false;
+
+    // the event taken by the last successful poll
+    private int mEvent;
+    private float mProgress;
+    private boolean mFromUser;
+
+    /**
+     * @param capacity rounded up to a power of two
+     * @param progress the consumer already knows about, so it is never queued as a change
+     */
+    public TrackingEventQueue(int capacity, float progress) {
+        if (capacity < 1 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("capacity must be 1 to 2^30");
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        mMask = size - 1;
+        mEvents = new int[size];
+        mProgresses = new float[size];
+        mFromUsers = new boolean[size];
+        mQueuedProgress = progress;
+    }
+
+    public int getCapacity() {
+        return mMask + 1;
+    }
+
+    /**
+     * Producer side. Record the current progress, queued later if it differs from the last one queued.
+     * A waiting change from the other source is queued first, so that each keeps its fromUser
+     */
+    public void setProgress(float progress, boolean fromUser) {
+        if (mHasPending && mPendingFromUser != fromUser) {
+            flush();
+        }
+        mPendingProgress = progress;
+        mPendingFromUser = fromUser;
+        mHasPending = true;
+    }
+
+    /**
+     * Producer side. Queue the waiting progress change, if any, then a start
+     */
+    public void offerStart() {
+        flush();
+        if (!offer(EVENT_START, mQueuedProgress, false)) {
+            mDroppedCount++;
+        }
+    }
+
+    /**
+     * Producer side. Queue the waiting progress change, if any, then a stop
+     */
+    public void offerStop() {
+        flush();
+        if (!offer(EVENT_STOP, mQueuedProgress, false)) {
+            mDroppedCount++;
+        }
+    }
+
+    /**
+     * Producer side. Queue the waiting progress change, if it is a change. If the queue is full it keeps
+     * waiting for the next flush
+     */
+    public void flush() {
+        if (!mHasPending) {
+            return;
+        }
+        if (mPendingProgress == mQueuedProgress
+                || offer(EVENT_PROGRESS, mPendingProgress, mPendingFromUser)) {
+            mQueuedProgress = mPendingProgress;
+            mHasPending = false;
+        }
+    }
+
+    /**
+     * Producer side
+     * @return number of starts and stops dropped because the queue was full. Progress changes are never
+     * dropped, they wait for room
+     */
+    public long getDroppedCount() {
+        return mDroppedCount;
+    }
+
+    /**
+     * Consumer side. Take the oldest event, then read it with {@link #getEvent()}, {@link #getProgress()}
+     * and {@link #isFromUser()}
+     * @return false if the queue was empty
+     */
+    public boolean poll() {
+        final long head = mHead.get();
+        if (head == mTail.get()) {
+            return false;
+        }
+        final int index = (int) head & mMask;
+        mEvent = mEvents[index];
+        mProgress = mProgresses[index];
+        mFromUser = mFromUsers[index];
+        // frees the slot: the producer reads the head before writing it again
+        mHead.lazySet(head + 1);
+        return true;
+    }
+
+    /**
+     * @return number of queued events. Exact only when called from the consumer or the producer thread
+     * while the other one is idle
+     */
+    public int size() {
+        return (int) (mTail.get() - mHead.get());
+    }
+
+    /**
+     * @return one of the EVENT_ constants
+     */
+    public int getEvent() {
+        return mEvent;
+    }
+
+    /**
+     * @return the new progress of an {@link #EVENT_PROGRESS}
+     */
+    public float getProgress() {
+        return mProgress;
+    }
+
+    public boolean isFromUser() {
+        return mFromUser;
+    }
+
+    private boolean offer(int event, float progress, boolean fromUser) {
+        final long tail = mTail.get();
+        if (tail - mHead.get() > mMask) {
+            return false;
+        }
+        final int index = (int) tail & mMask;
+        mEvents[index] = event;
+        mProgresses[index] = progress;
+        mFromUsers[index] = fromUser;
+        // publishes the event: the consumer reads the tail before the arrays
+        mTail.lazySet(tail + 1);
+        return true;
+    }
+}
@@ -0,0 +1,112 @@
+package com.akaita.android.circularseekbar.core;
+
+import java.util.Arrays;
+
+/**
+ * Maps the normalised position of the seek bar, 0-1, to a value between min and max.
+ * Touches move the position, so the scale decides how much value a turn is worth along the range:
+ * <ul>
+ *     <li>{@link #linear()}: the same everywhere</li>
+ *     <li>{@link #logarithmic()}: the same ratio everywhere, for frequencies or gains. Needs 0 &lt; min &lt; max</li>
+ *     <li>{@link #exponential(double)}: fine at one end, coarse at the other</li>
+ *     <li>{@link #piecewise(double[], double[])}: linear between custom breakpoints</li>
+ * </ul>
+ * Scales are only evaluated when the range or the scale changes, to build the table the engine
+ * reads on every event, so they may be as expensive as needed.
+ */
+public abstract class ValueScale {
+
+    private static final ValueScale LINEAR = new ValueScale() {
+        @Override
+        public double toValue(double position, double min, double max) {
+            return min + (max - min) * position;
+        }
+
+        @Override
+        int getTableSegments() {
+            // linear interpolation of a line is exact
+            return 1;
+        }
+    };
+
+    private static final ValueScale LOGARITHMIC = new ValueScale() {
+        @Override
+        public double toValue(double position, double min, double max) {
+            if (min <= 0 || max <= min) {
+                // no ratio to spread, behave linearly
+                return LINEAR.toValue(position, min, max);
+            }
+            return min * Math.pow(max / min, position);
+        }
+    };
+
+    public static ValueScale linear() {
+        return LINEAR;
+    }
+
+    public static ValueScale logarithmic() {
+        return LOGARITHMIC;
+    }
+
+    /**
+     * @param curvature positive to be fine near min, negative to be fine near max, 0 for linear
+     */
+    public static ValueScale exponential(final double curvature) {
+        if (Math.abs(curvature) < 1e-6) {
+            return LINEAR;
+        }
+        final double scale = Math.expm1(curvature);
+        return new ValueScale() {
+            @Override
+            public double toValue(double position, double min, double max) {
+                return min + (max - min) * Math.expm1(curvature * position) / scale;
+            }
+        };
+    }
+
+    /**
+     * Linear between breakpoints
+     * @param positions ascending, from 0 to 1
+     * @param fractions of the min-max range at each position, non-decreasing, from 0 to 1
+     */
+    public static ValueScale piecewise(double[] positions, double[] fractions) {
+        if (positions.length < 2 || positions.length != fractions.length) {
+            throw new IllegalArgumentException("At least two breakpoints, with one fraction per position");
+        }
+        if (positions[0] != 0 || positions[positions.length - 1] != 1
+                || fractions[0] != 0 || fractions[fractions.length - 1] != 1) {
+            throw new IllegalArgumentException("Breakpoints must go from (0, 0) to (1, 1)");
+        }
+        for (int i = 1; i < positions.length; i++) {
+            if (positions[i] <= positions[i - 1] || fractions[i] < fractions[i - 1]) {
+                throw new IllegalArgumentException("Breakpoints must be ascending");
+            }
+        }
+        final double[] p = Arrays.copyOf(positions, positions.length);
+        final double[] f = Arrays.copyOf(fractions, fractions.length);
+        return new ValueScale() {
+            @Override
+            public double toValue(double position, double min, double max) {
+                int i = 1;
+                while (i < p.length - 1 && position > p[i]) {
+                    i++;
+                }
+                double fraction = f[i - 1] + (f[i] - f[i - 1]) * (position - p[i - 1]) / (p[i] - p[i - 1]);
+                return min + (max - min) * fraction;
+            }
+        };
+    }
+
+    /**
+     * @param position 0-1
+     * @return the value at the position. Must not decrease as the position increases
+     */
+    public abstract double toValue(double position, double min, double max);
+
+    /**
+     * @return number of equal position intervals of the table this scale is sampled into
+     */
+    int getTableSegments() {
+        return 1024;
+    }
+}
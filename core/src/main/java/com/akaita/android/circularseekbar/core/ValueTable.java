@@ -0,0 +1,61 @@
+package com.akaita.android.circularseekbar.core;
+
+/**
+ * A {@link ValueScale} sampled at equally spaced positions for a given range, linearly interpolated
+ * in both directions. Built when the range or the scale change, read in constant time on every event.
+ */
+final class ValueTable {
+    private double[] mValues = new double[0];
+    private int mSegments;
+
+    void build(ValueScale scale, double min, double max) {
+        int segments = scale.getTableSegments();
+        if (mValues.length != segments + 1) {
+            mValues = new double[segments + 1];
+        }
+        mSegments = segments;
+        for (int i = 0; i <= segments; i++) {
+            mValues[i] = scale.toValue((double) i / segments, min, max);
+        }
+        // exact bounds, whatever the rounding of the scale
+        mValues[0] = min;
+        mValues[segments] = max;
+    }
+
+    /**
+     * @param position 0-1
+     */
+    double toValue(double position) {
+        double scaled = position * mSegments;
+        int index = Math.min((int) scaled, mSegments - 1);
+        return mValues[index] + (mValues[index + 1] - mValues[index]) * (scaled - index);
+    }
+
+    /**
+     * @return the position of the value, 0-1, limited to the range of the table
+     */
+    double toPosition(double value) {
+        final double[] values = mValues;
+        // the range may be inverted (min > max), search in its direction
+        final boolean ascending = values[mSegments] >= values[0];
+        if (ascending ? value <= values[0] : value >= values[0]) {
+            return 0;
+        }
+        if (ascending ? value >= values[mSegments] : value <= values[mSegments]) {
+            return 1;
+        }
+        int low = 0;
+        int high = mSegments;
+        while (high - low > 1) {
+            int middle = (low + high) >>> 1;
+            if (ascending ? values[middle] <= value : values[middle] >= value) {
+                low = middle;
+            } else {
+                high = middle;
+            }
+        }
+        double span = values[high] - values[low];
+        double fraction = span == 0 ? 0 : (value - values[low]) / span;
+        return (low + fraction) / mSegments;
+    }
+}
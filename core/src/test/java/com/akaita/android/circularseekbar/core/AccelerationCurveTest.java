@@ -0,0 +1,36 @@
+package com.akaita.android.circularseekbar.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class AccelerationCurveTest {
+
+    @Test
+    public void presets_meetLinearAtReferenceSpeed() throws Exception {
+        float reference = AccelerationCurve.REFERENCE_SPEED;
+        assertEquals(reference, AccelerationCurve.precision().transfer(reference), 1e-6f);
+        assertEquals(reference, AccelerationCurve.fast().transfer(reference), 1e-6f);
+    }
+
+    @Test
+    public void table_matchesCurve() throws Exception {
+        AccelerationCurve curve = AccelerationCurve.precision();
+        AccelerationTable table = new AccelerationTable();
+        table.build(curve);
+        for (float speed = 0; speed < 8; speed += 0.05f) {
+            assertEquals(curve.transfer(speed), table.apply(speed), 0.01f * Math.max(1, speed));
+            assertEquals(-table.apply(speed), table.apply(-speed), 0f);
+        }
+    }
+
+    @Test
+    public void engine_precisionSlowsSlowTurns() throws Exception {
+        SeekBarEngine linear = new SeekBarEngine();
+        SeekBarEngine precise = new SeekBarEngine();
+        precise.setAccelerationCurve(AccelerationCurve.precision());
+        linear.updateProgress(0, 0, 0.1f);
+        precise.updateProgress(0, 0, 0.1f);
+        assertTrue(precise.getProgress() < linear.getProgress() / 2);
+    }
+}
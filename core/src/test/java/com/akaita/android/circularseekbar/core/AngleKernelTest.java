@@ -0,0 +1,53 @@
+package com.akaita.android.circularseekbar.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class AngleKernelTest {
+
+    @Test
+    public void exact_matchesMath() throws Exception {
+        assertEquals(-135f, AngleKernel.exact().atan2Degrees(-1, -1), 0f);
+        assertEquals(0f, AngleKernel.exact().atan2Degrees(0, 0), 0f);
+    }
+
+    @Test
+    public void polynomial_isWithinBudget() throws Exception {
+        assertTrue(maxError(AngleKernel.polynomial()) < 0.001f);
+    }
+
+    @Test
+    public void lookupTable_improvesWithResolution() throws Exception {
+        double coarse = maxError(AngleKernel.lookupTable(16));
+        double fine = maxError(AngleKernel.lookupTable(256));
+        assertTrue(coarse < 0.1f);
+        assertTrue(fine < 0.001f);
+        assertTrue(fine < coarse);
+    }
+
+    @Test
+    public void engine_usesKernelForTouches() throws Exception {
+        SeekBarEngine engine = new SeekBarEngine();
+        engine.setSize(400, 400);
+        engine.setAngleKernel(AngleKernel.lookupTable(64));
+        engine.onTouch(SeekBarEngine.ACTION_DOWN, 200, 20, 0);
+        engine.onTouch(SeekBarEngine.ACTION_MOVE, 380, 200, 16);
+        assertEquals(90f, engine.getTouchAngle(), 0.01f);
+    }
+
+    /**
+     * @return largest error, in degrees, all around the circle including the axes and the octant boundaries
+     */
+    private static double maxError(AngleKernel kernel) {
+        double max = 0;
+        for (int i = 0; i < 3600; i++) {
+            double radians = Math.toRadians(i / 10.0);
+            float x = (float) (150 * Math.cos(radians));
+            float y = (float) (150 * Math.sin(radians));
+            double expected = Math.toDegrees(Math.atan2(y, x));
+            max = Math.max(max, Math.abs(kernel.atan2Degrees(y, x) - expected));
+        }
+        return max;
+    }
+}
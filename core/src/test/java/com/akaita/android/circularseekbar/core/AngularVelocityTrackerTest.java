@@ -0,0 +1,85 @@
+package com.akaita.android.circularseekbar.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class AngularVelocityTrackerTest {
+    private static final float CENTER = 100f;
+    private static final float RADIUS = 80f;
+
+    @Test
+    public void leastSquares_steadySpinAcrossWrap() throws Exception {
+        AngularVelocityTracker tracker = new AngularVelocityTracker(CENTER, CENTER);
+        // 0.5 degrees/ms clockwise, crossing 180/-180 and 0/360
+        for (int t = 0; t <= 1000; t += 4) {
+            add(tracker, t * 0.5, t);
+            if (t >= 8) {
+                assertEquals(0.5f, tracker.getAngularVelocity(), 0.001f);
+            }
+        }
+    }
+
+    @Test
+    public void leastSquares_counterClockwiseIsNegative() throws Exception {
+        AngularVelocityTracker tracker = new AngularVelocityTracker(CENTER, CENTER);
+        for (int t = 0; t <= 100; t += 8) {
+            add(tracker, 10 - t * 0.25, t);
+        }
+        assertEquals(-0.25f, tracker.getAngularVelocity(), 0.001f);
+    }
+
+    @Test
+    public void leastSquares_keepsFastSpins() throws Exception {
+        AngularVelocityTracker tracker = new AngularVelocityTracker(CENTER, CENTER);
+        // 45 degrees between samples: dropped by the two sample strategy
+        for (int t = 0; t <= 64; t += 16) {
+            add(tracker, t * 45 / 16.0, t);
+        }
+        assertEquals(45 / 16f, tracker.getAngularVelocity(), 0.001f);
+
+        tracker.setStrategy(AngularVelocityTracker.STRATEGY_TWO_SAMPLE);
+        assertEquals(0f, tracker.getAngularVelocity(), 0f);
+    }
+
+    @Test
+    public void twoSample_usesLastTwoSamples() throws Exception {
+        AngularVelocityTracker tracker = new AngularVelocityTracker(CENTER, CENTER,
+                AngularVelocityTracker.STRATEGY_TWO_SAMPLE);
+        add(tracker, 0, 0);
+        assertEquals(0f, tracker.getAngularVelocity(), 0f);
+        add(tracker, 10, 10);
+        add(tracker, 12, 20);
+        assertEquals(0.2f, tracker.getAngularVelocity(), 0.001f);
+    }
+
+    @Test
+    public void pauseResetsTheWindow() throws Exception {
+        AngularVelocityTracker tracker = new AngularVelocityTracker(CENTER, CENTER);
+        for (int t = 0; t <= 40; t += 8) {
+            add(tracker, t, t);
+        }
+        // finger rests, then moves slowly
+        add(tracker, 40, 200);
+        add(tracker, 41, 210);
+        assertEquals(0.1f, tracker.getAngularVelocity(), 0.001f);
+    }
+
+    @Test
+    public void clear_forgetsSamples() throws Exception {
+        AngularVelocityTracker tracker = new AngularVelocityTracker(CENTER, CENTER);
+        add(tracker, 0, 0);
+        add(tracker, 10, 10);
+        tracker.clear();
+        assertEquals(0f, tracker.getAngularVelocity(), 0f);
+        add(tracker, 50, 20);
+        assertEquals(0f, tracker.getAngularVelocity(), 0f);
+    }
+
+    private static void add(AngularVelocityTracker tracker, double degrees, long time) {
+        double radians = Math.toRadians(degrees);
+        tracker.addMovement(CENTER + RADIUS * (float) Math.sin(radians),
+                CENTER - RADIUS * (float) Math.cos(radians),
+                time);
+    }
+}
@@ -0,0 +1,72 @@
+package com.akaita.android.circularseekbar.core;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.text.DecimalFormat;
+
+import static org.junit.Assert.*;
+
+/**
+ * A simulated drag around the ring must not allocate once it has warmed up
+ */
+public class DragAllocationTest {
+    private static final int SIZE = 400;
+    private static final float CENTER = SIZE / 2;
+    private static final float RADIUS = 150f;
+
+    @Test
+    public void drag_allocatesNothing() throws Exception {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean allocations = (com.sun.management.ThreadMXBean) bean;
+        Assume.assumeTrue(allocations.isThreadAllocatedMemorySupported());
+        allocations.setThreadAllocatedMemoryEnabled(true);
+
+        SeekBarEngine engine = new SeekBarEngine();
+        engine.setSize(SIZE, SIZE);
+        engine.setMax(1000000);
+        ProgressTextBuffer text = new ProgressTextBuffer(new DecimalFormat("###,###,###,##0.0"));
+
+        // warm up, so class loading and JIT don't count. Warm-up and measured drags share measureDrag(): a
+        // switch to other code in between could deoptimise the caller inside the measured window
+        for (int round = 0; round < 5; round++) {
+            measureDrag(allocations, engine, text);
+        }
+
+        for (int round = 0; round < 5; round++) {
+            assertEquals("drag " + round, 0, measureDrag(allocations, engine, text));
+        }
+    }
+
+    /**
+     * @return bytes allocated by one drag
+     */
+    private static long measureDrag(com.sun.management.ThreadMXBean allocations, SeekBarEngine engine,
+                                    ProgressTextBuffer text) {
+        long threadId = Thread.currentThread().getId();
+        long before = allocations.getThreadAllocatedBytes(threadId);
+        long overhead = allocations.getThreadAllocatedBytes(threadId) - before;
+        before = allocations.getThreadAllocatedBytes(threadId);
+        drag(engine, text, 20000);
+        long allocated = allocations.getThreadAllocatedBytes(threadId) - before - overhead;
+        assertTrue(engine.getProgress() > 0);
+        return allocated;
+    }
+
+    private static void drag(SeekBarEngine engine, ProgressTextBuffer text, int events) {
+        engine.setProgress(0);
+        engine.onTouch(SeekBarEngine.ACTION_DOWN, CENTER, CENTER - RADIUS, 0);
+        for (int i = 1; i < events; i++) {
+            double angle = Math.toRadians(i * 3 % 360);
+            float x = CENTER + RADIUS * (float) Math.sin(angle);
+            float y = CENTER - RADIUS * (float) Math.cos(angle);
+            engine.addHistoricalSample(x - 1, y, i * 8L - 4);
+            engine.onTouch(SeekBarEngine.ACTION_MOVE, x, y, i * 8L);
+            text.update(engine.getProgress());
+        }
+        engine.onTouch(SeekBarEngine.ACTION_UP, CENTER, CENTER - RADIUS, events * 8L);
+    }
+}
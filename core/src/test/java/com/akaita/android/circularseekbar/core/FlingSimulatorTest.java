@@ -0,0 +1,51 @@
+package com.akaita.android.circularseekbar.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class FlingSimulatorTest {
+
+    @Test
+    public void slowRelease_doesNotFling() throws Exception {
+        FlingSimulator fling = new FlingSimulator();
+        assertFalse(fling.start(0.001f));
+        assertEquals(0f, fling.step(16), 0f);
+    }
+
+    @Test
+    public void distance_doesNotDependOnFrameRate() throws Exception {
+        float at60Hz = run(16);
+        float at120Hz = run(8);
+        assertEquals(at60Hz, at120Hz, at60Hz * 0.01f);
+        // total distance of an exponential decay is v0 / rate (minus the tail below the minimum velocity)
+        assertEquals(1f / (3 / 1000f), at60Hz, 5f);
+    }
+
+    @Test
+    public void decelerates_andStops() throws Exception {
+        FlingSimulator fling = new FlingSimulator();
+        fling.start(-1f);
+        float previous = Float.NEGATIVE_INFINITY;
+        int frames = 0;
+        while (fling.isActive()) {
+            float step = fling.step(16);
+            assertTrue(step < 0);
+            assertTrue(step > previous);
+            previous = step;
+            frames++;
+        }
+        assertTrue(frames > 10);
+        assertEquals(0f, fling.getVelocity(), 0f);
+    }
+
+    private static float run(float frameMillis) {
+        FlingSimulator fling = new FlingSimulator();
+        fling.start(1f);
+        float distance = 0;
+        while (fling.isActive()) {
+            distance += fling.step(frameMillis);
+        }
+        return distance;
+    }
+}
@@ -0,0 +1,71 @@
+package com.akaita.android.circularseekbar.core;
+
+import org.junit.Test;
+
+import java.math.RoundingMode;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.text.NumberFormat;
+import java.util.Locale;
+
+import static org.junit.Assert.*;
+
+public class ProgressTextBufferTest {
+    private static final DecimalFormatSymbols US = DecimalFormatSymbols.getInstance(Locale.US);
+    private static final DecimalFormatSymbols GERMANY = DecimalFormatSymbols.getInstance(Locale.GERMANY);
+
+    @Test
+    public void fastPath_matchesDecimalFormat() throws Exception {
+        assertMatches(new DecimalFormat("###,###,###,##0.0", US));
+        assertMatches(new DecimalFormat("###,###,###,##0.00", US));
+        assertMatches(new DecimalFormat("#.##", US));
+        assertMatches(new DecimalFormat("000.#", US));
+        assertMatches(new DecimalFormat("#,##0", US));
+        assertMatches(new DecimalFormat("###,###,##0.000", GERMANY));
+
+        DecimalFormat halfUp = new DecimalFormat("0.0", US);
+        halfUp.setRoundingMode(RoundingMode.HALF_UP);
+        assertMatches(halfUp);
+    }
+
+    @Test
+    public void fallback_matchesNumberFormat() throws Exception {
+        assertMatches(new DecimalFormat("0.0 dB", US));
+        assertMatches(NumberFormat.getPercentInstance(Locale.US));
+        assertMatches(new DecimalFormat("0.###E0", US));
+    }
+
+    @Test
+    public void displayedPrecision() throws Exception {
+        assertEquals(0.1f, ProgressTextBuffer.getDisplayedPrecision(new DecimalFormat("###,##0.0", US)), 0f);
+        assertEquals(1f, ProgressTextBuffer.getDisplayedPrecision(new DecimalFormat("0", US)), 0f);
+        assertEquals(0.01f, ProgressTextBuffer.getDisplayedPrecision(NumberFormat.getPercentInstance(Locale.US)), 0f);
+    }
+
+    @Test
+    public void update_onlyWhenValueChanges() throws Exception {
+        ProgressTextBuffer buffer = new ProgressTextBuffer(new DecimalFormat("0.0", US));
+        assertTrue(buffer.update(1.5f));
+        assertFalse(buffer.update(1.5f));
+        assertTrue(buffer.update(2.5f));
+
+        buffer.setFormat(new DecimalFormat("0.00", US));
+        assertTrue(buffer.update(2.5f));
+        assertEquals("2.50", buffer.toString());
+    }
+
+    private static void assertMatches(NumberFormat format) {
+        ProgressTextBuffer buffer = new ProgressTextBuffer(format);
+        float[] values = {0f, -0f, 0.04f, -0.04f, 0.05f, 0.15f, 0.25f, 1f, 9.99f, 10f, 999.95f,
+                1234.5f, -1234.56f, 1000000f, 123456789f, 0.000123f, Float.NaN};
+        for (float value : values) {
+            buffer.update(value);
+            assertEquals("value " + value, format.format(value), buffer.toString());
+        }
+        for (int i = -20000; i <= 20000; i += 7) {
+            float value = i / 13f;
+            buffer.update(value);
+            assertEquals("value " + value, format.format(value), buffer.toString());
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package com.akaita.android.circularseekbar.core;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class SeekBarEngineTest {
+    private SeekBarEngine mEngine;
+
+    @Before
+    public void setUp() throws Exception {
+        mEngine = new SeekBarEngine();
+        // ring from radius 50 to 100 around (100, 150)
+        mEngine.setSize(200, 300);
+    }
+
+    @Test
+    public void geometry() throws Exception {
+        assertEquals(100f, mEngine.getCenterX(), 0f);
+        assertEquals(150f, mEngine.getCenterY(), 0f);
+        assertEquals(100f, mEngine.getOuterCircleRadius(), 0f);
+        assertEquals(50f, mEngine.getInnerCircleRadius(), 0f);
+
+        mEngine.setRingWidthFactor(0.25f);
+        assertEquals(75f, mEngine.getInnerCircleRadius(), 0f);
+    }
+
+    @Test
+    public void angle_clockwiseFromNorth() throws Exception {
+        assertEquals(0f, mEngine.getAngle(100, 80), 0.001f);
+        assertEquals(90f, mEngine.getAngle(170, 150), 0.001f);
+        assertEquals(-90f, mEngine.getAngle(30, 150), 0.001f);
+    }
+
+    @Test
+    public void hitTesting() throws Exception {
+        assertTrue(mEngine.isOnRing(100, 75));
+        assertFalse(mEngine.isOnRing(100, 150));
+        assertFalse(mEngine.isOnRing(100, 50));
+        assertTrue(mEngine.isInCenter(100, 150));
+        assertFalse(mEngine.isInCenter(100, 75));
+
+        // thinner ring, from radius 75 to 100
+        mEngine.setRingWidthFactor(0.25f);
+        assertFalse(mEngine.isOnRing(100, 80));
+        assertTrue(mEngine.isInCenter(100, 80));
+        assertTrue(mEngine.isOnRing(100, 74));
+    }
+
+    @Test
+    public void onTouch_results() throws Exception {
+        assertEquals(SeekBarEngine.RESULT_START, mEngine.onTouch(SeekBarEngine.ACTION_DOWN, 100, 75, 0));
+        assertTrue(mEngine.isTouching());
+        assertEquals(SeekBarEngine.RESULT_MOVE, mEngine.onTouch(SeekBarEngine.ACTION_MOVE, 110, 75, 10));
+        assertEquals(SeekBarEngine.RESULT_OUTSIDE, mEngine.onTouch(SeekBarEngine.ACTION_MOVE, 100, 150, 20));
+        assertFalse(mEngine.isTouching());
+        assertEquals(SeekBarEngine.RESULT_START, mEngine.onTouch(SeekBarEngine.ACTION_DOWN, 100, 75, 30));
+        assertEquals(SeekBarEngine.RESULT_STOP, mEngine.onTouch(SeekBarEngine.ACTION_UP, 100, 75, 40));
+        assertFalse(mEngine.isTouching());
+    }
+
+    @Test
+    public void clockwiseDrag_increasesProgress() throws Exception {
+        drag(1);
+        assertTrue(mEngine.getProgress() > 0);
+
+        float progress = mEngine.getProgress();
+        drag(-1);
+        assertTrue(mEngine.getProgress() < progress);
+    }
+
+    @Test
+    public void progress_isClamped() throws Exception {
+        mEngine.setMax(1);
+        mEngine.setSpeedMultiplier(100);
+        drag(1);
+        assertEquals(1f, mEngine.getProgress(), 0f);
+        drag(-1);
+        assertEquals(0f, mEngine.getProgress(), 0f);
+    }
+
+    @Test
+    public void fling_continuesAfterFastRelease() throws Exception {
+        mEngine.setMax(1000);
+        drag(1);
+        assertTrue(mEngine.startFling());
+        float released = mEngine.getProgress();
+        assertTrue(mEngine.stepFling(16));
+        assertTrue(mEngine.getProgress() > released);
+
+        // a new touch catches it
+        mEngine.onTouch(SeekBarEngine.ACTION_DOWN, 100, 75, 2000);
+        assertFalse(mEngine.isFlinging());
+    }
+
+    @Test
+    public void fling_travelDoesNotDependOnFrameRate() throws Exception {
+        AccelerationCurve[] curves = {AccelerationCurve.linear(), AccelerationCurve.precision(), AccelerationCurve.fast()};
+        for (AccelerationCurve curve : curves) {
+            float at120Hz = flingTravel(curve, 8);
+            float at60Hz = flingTravel(curve, 16);
+            assertTrue(at120Hz > 0);
+            // only where the fling falls below its minimum velocity differs
+            assertEquals(at120Hz, at60Hz, at120Hz * 0.005f);
+        }
+    }
+
+    @Test
+    public void fling_notAfterRestingFinger() throws Exception {
+        mEngine.onTouch(SeekBarEngine.ACTION_DOWN, 100, 75, 0);
+        for (int i = 1; i <= 30; i++) {
+            double angle = Math.toRadians(i * 2);
+            mEngine.onTouch(SeekBarEngine.ACTION_MOVE,
+                    100 + 75 * (float) Math.sin(angle),
+                    150 - 75 * (float) Math.cos(angle),
+                    i * 8);
+        }
+        mEngine.onTouch(SeekBarEngine.ACTION_UP, 100 + 75 * (float) Math.sin(Math.toRadians(60)),
+                150 - 75 * (float) Math.cos(Math.toRadians(60)), 30 * 8 + 500);
+        assertFalse(mEngine.startFling());
+    }
+
+    @Test
+    public void stepSize_quantisesAndAccumulatesSmallChanges() throws Exception {
+        mEngine.setStepSize(1);
+        mEngine.onTouch(SeekBarEngine.ACTION_DOWN, 100, 75, 0);
+        int changes = 0;
+        float previous = mEngine.getProgress();
+        for (int i = 1; i <= 90; i++) {
+            double angle = Math.toRadians(i * 2);
+            mEngine.onTouch(SeekBarEngine.ACTION_MOVE,
+                    100 + 75 * (float) Math.sin(angle),
+                    150 - 75 * (float) Math.cos(angle),
+                    i * 8);
+            float progress = mEngine.getProgress();
+            assertEquals(Math.rint(progress), progress, 0f);
+            if (progress != previous) {
+                changes++;
+            }
+            previous = progress;
+        }
+        // each move is worth a fraction of a step, yet they add up
+        assertTrue(previous > 5);
+        assertTrue(changes < 90);
+    }
+
+    @Test
+    public void stepSize_countsFromMin() throws Exception {
+        mEngine.setMin(0.5f);
+        mEngine.setStepSize(2);
+        mEngine.setProgress(3.2f);
+        assertEquals(2.5f, mEngine.getProgress(), 0f);
+        mEngine.setStepSize(0);
+        assertEquals(3.2f, mEngine.getProgress(), 0f);
+    }
+
+    @Test
+    public void rotary_followsDirectionAndSteps() throws Exception {
+        mEngine.setStepSize(1);
+        mEngine.setProgress(50);
+        mEngine.onRotary(15, 0);
+        mEngine.onRotary(15, 20);
+        float forward = mEngine.getProgress();
+        assertTrue(forward > 50);
+        assertEquals(Math.rint(forward), forward, 0f);
+        mEngine.onRotary(-15, 40);
+        assertTrue(mEngine.getProgress() < forward);
+    }
+
+    @Test
+    public void rotary_acceleratesFastSpins() throws Exception {
+        mEngine.setAccelerationCurve(AccelerationCurve.precision());
+        mEngine.setMax(1000);
+        for (int i = 0; i < 10; i++) {
+            mEngine.onRotary(15, i * 200);
+        }
+        float slow = mEngine.getProgress();
+
+        mEngine.setProgress(0);
+        mEngine.resetRotary();
+        for (int i = 0; i < 10; i++) {
+            mEngine.onRotary(15, 10000 + i * 10);
+        }
+        assertTrue(mEngine.getProgress() > slow * 2);
+    }
+
+    @Test
+    public void rotary_ignoresPreviousTouches() throws Exception {
+        mEngine.setStepSize(0);
+        mEngine.setMax(1000);
+        mEngine.setProgress(500);
+        mEngine.onRotary(15, 0);
+        float untouched = mEngine.getProgress() - 500;
+
+        // a drag on a 120Hz digitizer
+        mEngine.onTouch(SeekBarEngine.ACTION_DOWN, 100, 75, 1000);
+        for (int i = 1; i <= 20; i++) {
+            double angle = Math.toRadians(i * 2);
+            mEngine.onTouch(SeekBarEngine.ACTION_MOVE,
+                    (float) (100 + 75 * Math.sin(angle)), (float) (150 - 75 * Math.cos(angle)), 1000 + i * 8);
+        }
+        mEngine.onTouch(SeekBarEngine.ACTION_UP, 100, 75, 1200);
+
+        mEngine.setProgress(500);
+        mEngine.resetRotary();
+        mEngine.onRotary(15, 10000);
+        assertEquals(untouched, mEngine.getProgress() - 500, 0f);
+    }
+
+    /**
+     * @return progress covered by the fling after a clockwise drag, stepped every frameMillis
+     */
+    private float flingTravel(AccelerationCurve curve, float frameMillis) {
+        mEngine = new SeekBarEngine();
+        mEngine.setSize(200, 300);
+        mEngine.setMax(100000);
+        mEngine.setAccelerationCurve(curve);
+        drag(1);
+        float released = mEngine.getProgress();
+        assertTrue(mEngine.startFling());
+        while (mEngine.stepFling(frameMillis)) {
+            // Nothing
+        }
+        return mEngine.getProgress() - released;
+    }
+
+    private void drag(int direction) {
+        mEngine.onTouch(SeekBarEngine.ACTION_DOWN, 100, 75, 0);
+        for (int i = 1; i <= 90; i++) {
+            double angle = Math.toRadians(direction * i * 2);
+            mEngine.onTouch(SeekBarEngine.ACTION_MOVE,
+                    100 + 75 * (float) Math.sin(angle),
+                    150 - 75 * (float) Math.cos(angle),
+                    i * 8);
+        }
+        mEngine.onTouch(SeekBarEngine.ACTION_UP,
+                100 + 75 * (float) Math.sin(Math.toRadians(direction * 180)),
+                150 - 75 * (float) Math.cos(Math.toRadians(direction * 180)),
+                90 * 8 + 8);
+    }
+}
@@ -0,0 +1,73 @@
+package com.akaita.android.circularseekbar.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class SeekBarMetricsTest {
+
+    @Test
+    public void latency_isFromFirstEventOfTheFrame() throws Exception {
+        SeekBarMetrics metrics = new SeekBarMetrics();
+        metrics.recordEvent(100);
+        metrics.recordEvent(104);
+        metrics.recordEvent(108);
+        metrics.recordFrameRequest();
+        metrics.recordDraw(2000, 116);
+        // a frame without input doesn't count towards latency or events per frame
+        metrics.recordDraw(1000, 132);
+        metrics.recordEvent(140);
+        metrics.recordPartialRedraw();
+        metrics.recordDraw(3000, 144);
+
+        SeekBarMetrics.Snapshot snapshot = new SeekBarMetrics.Snapshot();
+        metrics.snapshot(snapshot);
+        assertEquals(3, snapshot.getDrawCount());
+        assertEquals(2000, snapshot.getMeanDrawNanos());
+        assertEquals(3000, snapshot.getMaxDrawNanos());
+        assertEquals(4, snapshot.getEventCount());
+        assertEquals(2f, snapshot.getMeanEventsPerFrame(), 0f);
+        assertEquals(3, snapshot.getMaxEventsPerFrame());
+        assertEquals(10, snapshot.getMeanLatencyMillis());
+        assertEquals(16, snapshot.getMaxLatencyMillis());
+    }
+
+    @Test
+    public void latency_ignoresEventsWhichSkippedTheRedraw() throws Exception {
+        SeekBarMetrics metrics = new SeekBarMetrics();
+        // a move within the same step
+        metrics.recordEvent(100);
+        metrics.recordSkippedRedraw();
+        // an unrelated frame much later, then one asked for by an event
+        metrics.recordDraw(1000, 500);
+        metrics.recordEvent(600);
+        metrics.recordFrameRequest();
+        metrics.recordDraw(1000, 608);
+
+        SeekBarMetrics.Snapshot snapshot = new SeekBarMetrics.Snapshot();
+        metrics.snapshot(snapshot);
+        assertEquals(2, snapshot.getEventCount());
+        assertEquals(1f, snapshot.getMeanEventsPerFrame(), 0f);
+        assertEquals(8, snapshot.getMeanLatencyMillis());
+        assertEquals(8, snapshot.getMaxLatencyMillis());
+        assertEquals(1, snapshot.getSkippedRedrawCount());
+    }
+
+    @Test
+    public void dispatch_countsCoalescedUpdates() throws Exception {
+        SeekBarMetrics metrics = new SeekBarMetrics();
+        metrics.recordDispatch(500, 1);
+        metrics.recordDispatch(1500, 4);
+
+        SeekBarMetrics.Snapshot snapshot = new SeekBarMetrics.Snapshot();
+        metrics.snapshot(snapshot);
+        assertEquals(2, snapshot.getDispatchCount());
+        assertEquals(1000, snapshot.getMeanDispatchNanos());
+        assertEquals(3, snapshot.getCoalescedUpdateCount());
+
+        metrics.reset();
+        metrics.snapshot(snapshot);
+        assertEquals(0, snapshot.getDispatchCount());
+        assertEquals(0, snapshot.getMeanDispatchNanos());
+    }
+}
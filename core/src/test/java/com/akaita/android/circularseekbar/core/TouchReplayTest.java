@@ -0,0 +1,110 @@
+package com.akaita.android.circularseekbar.core;
+
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+
+import static org.junit.Assert.*;
+
+/**
+ * Replays the gestures in src/test/resources/gestures. When a change to the touch logic is meant to
+ * change how they play, update expected.csv with the new values
+ */
+public class TouchReplayTest {
+
+    @Test
+    public void recording_roundTrips() throws Exception {
+        TouchRecording recording = new TouchRecording(320, 240);
+        recording.add(SeekBarEngine.ACTION_DOWN, 1.5f, 2.25f, 1000000L);
+        recording.add(TouchRecording.ACTION_HISTORICAL, 3f, 4f, 1000004L);
+        recording.add(SeekBarEngine.ACTION_MOVE, 5f, 6f, 1000008L);
+        // clocks are not always monotonic across devices' batching
+        recording.add(SeekBarEngine.ACTION_UP, -7f, 8f, 1000002L);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        recording.write(bytes);
+        TouchRecording read = TouchRecording.read(new ByteArrayInputStream(bytes.toByteArray()));
+
+        assertEquals(320, read.getWidth());
+        assertEquals(240, read.getHeight());
+        assertEquals(recording.size(), read.size());
+        for (int i = 0; i < recording.size(); i++) {
+            assertEquals(recording.getAction(i), read.getAction(i));
+            assertEquals(recording.getX(i), read.getX(i), 0f);
+            assertEquals(recording.getY(i), read.getY(i), 0f);
+            assertEquals(recording.getEventTime(i), read.getEventTime(i));
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void read_rejectsOtherData() throws Exception {
+        TouchRecording.read(new ByteArrayInputStream(new byte[]{1, 2, 3, 4, 5, 6, 7, 8}));
+    }
+
+    @Test
+    public void corpus_playsAsExpected() throws Exception {
+        BufferedReader expected = new BufferedReader(new InputStreamReader(open("expected.csv"), "UTF-8"));
+        try {
+            String line;
+            int count = 0;
+            while ((line = expected.readLine()) != null) {
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] fields = line.split(",");
+                TouchReplay.Result result = replay(fields[0]);
+                assertEquals(fields[0] + " final progress", Float.parseFloat(fields[1]), result.getFinalProgress(), 1e-3f);
+                assertEquals(fields[0] + " max jump", Float.parseFloat(fields[2]), result.getMaxJump(), 1e-3f);
+                count++;
+            }
+            assertTrue(count > 0);
+        } finally {
+            expected.close();
+        }
+    }
+
+    @Test
+    public void replay_isDeterministic() throws Exception {
+        TouchReplay.Result first = replay("fast_spin_batched");
+        TouchReplay.Result second = replay("fast_spin_batched");
+        assertEquals(first.size(), second.size());
+        for (int i = 0; i < first.size(); i++) {
+            assertEquals(first.getProgress(i), second.getProgress(i), 0f);
+            assertEquals(first.getResult(i), second.getResult(i));
+        }
+    }
+
+    @Test
+    public void fastSpin_goesFurtherThanSlowSpin() throws Exception {
+        assertTrue(replay("fast_spin_batched").getFinalProgress() > replay("slow_spin").getFinalProgress());
+    }
+
+    @Test
+    public void tapOnCenter_isOutsideTheRing() throws Exception {
+        TouchReplay.Result result = replay("tap_center");
+        assertEquals(SeekBarEngine.RESULT_OUTSIDE, result.getResult(0));
+        assertEquals(0f, result.getFinalProgress(), 0f);
+    }
+
+    private static TouchReplay.Result replay(String name) throws IOException {
+        InputStream in = open(name + ".touch");
+        try {
+            return TouchReplay.replay(TouchRecording.read(in), new SeekBarEngine());
+        } finally {
+            in.close();
+        }
+    }
+
+    private static InputStream open(String name) throws IOException {
+        InputStream in = TouchReplayTest.class.getResourceAsStream("/gestures/" + name);
+        if (in == null) {
+            throw new IOException("Missing test resource gestures/" + name);
+        }
+        return in;
+    }
+}
@@ -0,0 +1,68 @@
+package com.akaita.android.circularseekbar.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TouchSampleQueueTest {
+
+    @Test
+    public void capacity_roundsUpToPowerOfTwo() throws Exception {
+        assertEquals(1, new TouchSampleQueue(1).getCapacity());
+        assertEquals(128, new TouchSampleQueue(100).getCapacity());
+        assertEquals(256, new TouchSampleQueue(256).getCapacity());
+    }
+
+    @Test
+    public void full_dropsNewSamples() throws Exception {
+        TouchSampleQueue queue = new TouchSampleQueue(2);
+        assertTrue(queue.offer(SeekBarEngine.ACTION_DOWN, 1, 2, 3));
+        assertTrue(queue.offer(SeekBarEngine.ACTION_MOVE, 4, 5, 6));
+        assertFalse(queue.offer(SeekBarEngine.ACTION_UP, 7, 8, 9));
+        assertEquals(1, queue.getDroppedCount());
+
+        assertTrue(queue.poll());
+        assertEquals(SeekBarEngine.ACTION_DOWN, queue.getAction());
+        assertEquals(1f, queue.getX(), 0f);
+        assertEquals(2f, queue.getY(), 0f);
+        assertEquals(3L, queue.getEventTime());
+        assertTrue(queue.offer(SeekBarEngine.ACTION_UP, 7, 8, 9));
+        assertTrue(queue.poll());
+        assertEquals(SeekBarEngine.ACTION_MOVE, queue.getAction());
+        assertTrue(queue.poll());
+        assertEquals(SeekBarEngine.ACTION_UP, queue.getAction());
+        assertFalse(queue.poll());
+    }
+
+    @Test
+    public void twoThreads_keepOrderAndContent() throws Exception {
+        final int count = 200000;
+        final TouchSampleQueue queue = new TouchSampleQueue(64);
+        Thread producer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < count; i++) {
+                    while (!queue.offer(i % 4, i, -i, i * 3L)) {
+                        Thread.yield();
+                    }
+                }
+            }
+        });
+        producer.start();
+
+        int received = 0;
+        while (received < count) {
+            if (queue.poll()) {
+                assertEquals(received % 4, queue.getAction());
+                assertEquals((float) received, queue.getX(), 0f);
+                assertEquals((float) -received, queue.getY(), 0f);
+                assertEquals(received * 3L, queue.getEventTime());
+                received++;
+            } else {
+                Thread.yield();
+            }
+        }
+        producer.join();
+        assertFalse(queue.poll());
+    }
+}
@@ -0,0 +1,99 @@
+package com.akaita.android.circularseekbar.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TrackingEventQueueTest {
+
+    @Test
+    public void catchingAFling_stopsTheFlingBeforeTheNewStart() throws Exception {
+        TrackingEventQueue queue = new TrackingEventQueue(16, 0);
+        queue.offerStart();
+        queue.setProgress(10, true);
+        queue.flush();
+        assertEvents(queue, TrackingEventQueue.EVENT_START, TrackingEventQueue.EVENT_PROGRESS);
+
+        // one frame: the fling moves on, a finger catches it and jumps the progress
+        queue.setProgress(12, true);
+        queue.offerStop();
+        queue.setProgress(12, true);
+        queue.offerStart();
+        queue.setProgress(20, true);
+        queue.flush();
+
+        assertTrue(queue.poll());
+        assertEquals(TrackingEventQueue.EVENT_PROGRESS, queue.getEvent());
+        assertEquals(12f, queue.getProgress(), 0f);
+        assertEvents(queue, TrackingEventQueue.EVENT_STOP, TrackingEventQueue.EVENT_START);
+        assertTrue(queue.poll());
+        assertEquals(TrackingEventQueue.EVENT_PROGRESS, queue.getEvent());
+        assertEquals(20f, queue.getProgress(), 0f);
+        assertFalse(queue.poll());
+    }
+
+    @Test
+    public void shortGesturesInOneFrame_keepTheirPairs() throws Exception {
+        TrackingEventQueue queue = new TrackingEventQueue(16, 0);
+        queue.offerStart();
+        queue.setProgress(3, true);
+        queue.setProgress(5, true);
+        queue.offerStop();
+        queue.offerStart();
+        queue.setProgress(8, true);
+        queue.offerStop();
+        queue.flush();
+
+        assertEvents(queue, TrackingEventQueue.EVENT_START, TrackingEventQueue.EVENT_PROGRESS,
+                TrackingEventQueue.EVENT_STOP, TrackingEventQueue.EVENT_START, TrackingEventQueue.EVENT_PROGRESS,
+                TrackingEventQueue.EVENT_STOP);
+        assertFalse(queue.poll());
+    }
+
+    @Test
+    public void progress_mergesChangesOfOneSourceOnly() throws Exception {
+        TrackingEventQueue queue = new TrackingEventQueue(16, 0);
+        queue.setProgress(4, true);
+        queue.setProgress(5, true);
+        queue.setProgress(7, false);
+        queue.flush();
+
+        assertTrue(queue.poll());
+        assertEquals(5f, queue.getProgress(), 0f);
+        assertTrue(queue.isFromUser());
+        assertTrue(queue.poll());
+        assertEquals(7f, queue.getProgress(), 0f);
+        assertFalse(queue.isFromUser());
+
+        // back where it was: not a change
+        queue.setProgress(9, true);
+        queue.setProgress(7, true);
+        queue.flush();
+        assertFalse(queue.poll());
+    }
+
+    @Test
+    public void full_dropsTrackingAndKeepsProgressWaiting() throws Exception {
+        TrackingEventQueue queue = new TrackingEventQueue(2, 0);
+        queue.offerStart();
+        queue.offerStop();
+        queue.setProgress(1, true);
+        queue.flush();
+        queue.offerStart();
+        assertEquals(1, queue.getDroppedCount());
+        assertEquals(2, queue.size());
+
+        assertEvents(queue, TrackingEventQueue.EVENT_START);
+        queue.flush();
+        assertEvents(queue, TrackingEventQueue.EVENT_STOP, TrackingEventQueue.EVENT_PROGRESS);
+        assertEquals(1f, queue.getProgress(), 0f);
+        assertFalse(queue.poll());
+    }
+
+    private static void assertEvents(TrackingEventQueue queue, int... events) {
+        for (int event : events) {
+            assertTrue(queue.poll());
+            assertEquals(event, queue.getEvent());
+        }
+    }
+}
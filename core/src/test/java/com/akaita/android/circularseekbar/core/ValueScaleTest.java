@@ -0,0 +1,64 @@
+package com.akaita.android.circularseekbar.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ValueScaleTest {
+
+    @Test
+    public void logarithmic_spreadsRatios() throws Exception {
+        ValueTable table = new ValueTable();
+        table.build(ValueScale.logarithmic(), 20, 20000);
+        assertEquals(20, table.toValue(0), 0);
+        assertEquals(Math.sqrt(20 * 20000), table.toValue(0.5), 0.01);
+        assertEquals(20000, table.toValue(1), 0);
+        assertEquals(0.5, table.toPosition(Math.sqrt(20 * 20000)), 1e-6);
+    }
+
+    @Test
+    public void logarithmic_withoutRatio_isLinear() throws Exception {
+        ValueTable table = new ValueTable();
+        table.build(ValueScale.logarithmic(), 0, 100);
+        assertEquals(50, table.toValue(0.5), 1e-9);
+    }
+
+    @Test
+    public void piecewise_interpolatesBreakpoints() throws Exception {
+        ValueTable table = new ValueTable();
+        table.build(ValueScale.piecewise(new double[]{0, 0.5, 1}, new double[]{0, 0.1, 1}), 0, 1000);
+        assertEquals(50, table.toValue(0.25), 1e-6);
+        assertEquals(100, table.toValue(0.5), 1e-6);
+        assertEquals(550, table.toValue(0.75), 1e-6);
+        assertEquals(0.75, table.toPosition(550), 1e-9);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void piecewise_rejectsDescendingBreakpoints() throws Exception {
+        ValueScale.piecewise(new double[]{0, 0.6, 0.5, 1}, new double[]{0, 0.1, 0.2, 1});
+    }
+
+    @Test
+    public void table_roundTrips() throws Exception {
+        ValueTable table = new ValueTable();
+        table.build(ValueScale.exponential(4), -10, 10);
+        for (int i = 0; i <= 100; i++) {
+            double position = i / 100.0;
+            assertEquals(position, table.toPosition(table.toValue(position)), 1e-9);
+        }
+    }
+
+    @Test
+    public void engine_keepsPrecisionAtLargeMax() throws Exception {
+        SeekBarEngine engine = new SeekBarEngine();
+        engine.setMax(1e9f);
+        engine.setProgress(5e8f);
+        engine.updateProgress(0, 0, 1e-6f);
+        // a tiny turn still moves the position, even if the float progress can't show it
+        assertTrue(engine.getPosition() > 0.5);
+
+        engine.setValueScale(ValueScale.logarithmic());
+        engine.setMin(1);
+        assertEquals(5e8f, engine.getProgress(), 64f);
+    }
+}
@@ -0,0 +1,34 @@
+package com.akaita.android.circularseekbar;
+
+import android.graphics.Paint;
+
+/**
+ * Switches a Paint into its ambient (low-power) state and back, without allocating:
+ * anti-aliasing off and, optionally, a thin outline instead of a fill
+ */
+class AmbientPaintState {
+    private boolean mAntiAlias;
+    private Paint.Style mStyle;
+    private float mStrokeWidth;
+
+    /**
+     * @param paint
+     * @param outlineWidth width of the outline to draw instead of a fill, or 0 to keep the style
+     */
+    void enter(Paint paint, float outlineWidth) {
+        mAntiAlias = paint.isAntiAlias();
+        mStyle = paint.getStyle();
+        mStrokeWidth = paint.getStrokeWidth();
+        paint.setAntiAlias(false);
+        if (outlineWidth > 0) {
+            paint.setStyle(Paint.Style.STROKE);
+            paint.setStrokeWidth(outlineWidth);
+        }
+    }
+
+    void exit(Paint paint) {
+        paint.setAntiAlias(mAntiAlias);
+        paint.setStyle(mStyle);
+        paint.setStrokeWidth(mStrokeWidth);
+    }
+}
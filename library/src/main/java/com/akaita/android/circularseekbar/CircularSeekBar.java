@@ -1,32 +1,103 @@
 package com.akaita.android.circularseekbar;
 
+import android.content.ComponentCallbacks;
 import android.content.Context;
-import android.content.res.TypedArray;
 import android.graphics.Canvas;
-import android.graphics.Color;
 import android.graphics.Paint;
-import android.graphics.Paint.Align;
-import android.graphics.Paint.Style;
-import android.graphics.PointF;
+import android.graphics.Rect;
 import android.graphics.RectF;
+import android.os.Build;
+import android.os.SystemClock;
 import android.support.annotation.ColorInt;
 import android.support.annotation.FloatRange;
+import android.support.annotation.IntDef;
+import android.support.annotation.IntRange;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 import android.util.AttributeSet;
 import android.view.GestureDetector;
 import android.view.MotionEvent;
 import android.view.View;
-
-import java.text.DecimalFormat;
+import android.view.animation.Interpolator;
+
+import com.akaita.android.circularseekbar.core.AccelerationCurve;
+import com.akaita.android.circularseekbar.core.AngleKernel;
+import com.akaita.android.circularseekbar.core.AngularVelocityTracker;
+import com.akaita.android.circularseekbar.core.ProgressTextBuffer;
+import com.akaita.android.circularseekbar.core.SeekBarEngine;
+import com.akaita.android.circularseekbar.core.SeekBarMetrics;
+import com.akaita.android.circularseekbar.core.ValueScale;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
 import java.text.NumberFormat;
 
 /**
  * Displays a touchable and circular SeekBar, an optional central circle
  * and a customizable text in the center.
  * The faster the user moves the finger across the CircularSeekBar, the faster the progress changes.
+ * Gesture and value logic lives in {@link SeekBarEngine}, this View only adapts it to Android.
  */
 public class CircularSeekBar extends View {
+    /**
+     * Velocity from the two most recent touch samples (the original behaviour)
+     */
+    public static final int VELOCITY_STRATEGY_TWO_SAMPLE = AngularVelocityTracker.STRATEGY_TWO_SAMPLE;
+    /**
+     * Velocity from a least-squares fit over all recent touch samples, including batched historical ones
+     */
+    public static final int VELOCITY_STRATEGY_LEAST_SQUARES = AngularVelocityTracker.STRATEGY_LEAST_SQUARES;
+
+    @Retention(RetentionPolicy.SOURCE)
+    @IntDef({VELOCITY_STRATEGY_TWO_SAMPLE, VELOCITY_STRATEGY_LEAST_SQUARES})
+    public @interface VelocityStrategy {}
+
+    /**
+     * Call the listener on every progress change (the original behaviour)
+     */
+    public static final int DISPATCH_IMMEDIATE = 0;
+    /**
+     * Call the listener at most once per display frame, with the latest progress
+     */
+    public static final int DISPATCH_PER_FRAME = 1;
+    /**
+     * Call the listener at most once per dispatch interval, with the latest progress
+     */
+    public static final int DISPATCH_THROTTLE = 2;
+    /**
+     * Call the listener once the progress has not changed for a dispatch interval, with the latest progress
+     */
+    public static final int DISPATCH_DEBOUNCE = 3;
+
+    @Retention(RetentionPolicy.SOURCE)
+    @IntDef({DISPATCH_IMMEDIATE, DISPATCH_PER_FRAME, DISPATCH_THROTTLE, DISPATCH_DEBOUNCE})
+    public @interface DispatchMode {}
+
+    /**
+     * The progress was set programmatically
+     */
+    public static final int SOURCE_PROGRAM = 0;
+    /**
+     * The progress was changed by the user dragging the ring
+     */
+    public static final int SOURCE_TOUCH = 1;
+    /**
+     * The progress was changed by a fling, after the user released the ring
+     */
+    public static final int SOURCE_FLING = 2;
+    /**
+     * The progress was changed by {@link #animateProgressTo}
+     */
+    public static final int SOURCE_ANIMATION = 3;
+    /**
+     * The user turned a rotary input, like a watch crown
+     */
+    public static final int SOURCE_ROTARY = 4;
+
+    @Retention(RetentionPolicy.SOURCE)
+    @IntDef({SOURCE_PROGRAM, SOURCE_TOUCH, SOURCE_FLING, SOURCE_ANIMATION, SOURCE_ROTARY})
+    public @interface ProgressSource {}
+
     /**
      * Listen for touch-events on the ring area
      */
@@ -38,6 +109,18 @@ public class CircularSeekBar extends View {
         void onStopTrackingTouch(CircularSeekBar seekBar);
     }
 
+    /**
+     * Optionally implemented by an {@link OnCircularSeekBarChangeListener} to learn how many progress changes
+     * were merged into each callback when the dispatch mode is not {@link #DISPATCH_IMMEDIATE}.
+     * If implemented, it is called instead of {@link OnCircularSeekBarChangeListener#onProgressChanged}
+     */
+    public interface OnCoalescedProgressChangeListener {
+        /**
+         * @param mergedUpdates number of progress changes represented by this call, 1 or more
+         */
+        void onProgressChanged(CircularSeekBar seekBar, float progress, boolean fromUser, int mergedUpdates);
+    }
+
     /**
      * Listen for singletap-events on the inner circle area
      */
@@ -45,37 +128,90 @@ public class CircularSeekBar extends View {
         void onCenterClicked(CircularSeekBar seekBar, float progress);
     }
 
+    /**
+     * Receives the performance metrics of the seek bar, see {@link #setMetricsSink(MetricsSink)}
+     */
+    public interface MetricsSink {
+        /**
+         * Called at the end of every gesture (touch, fling or rotary turn) and when the view is detached,
+         * with the metrics recorded since the previous call. The snapshot is reused: copy what you keep
+         */
+        void onMetrics(CircularSeekBar seekBar, SeekBarMetrics.Snapshot snapshot);
+    }
+
     // settable by the client through attributes and programmatically
     private @Nullable OnCircularSeekBarChangeListener mOnCircularSeekBarChangeListener = null;
     private @Nullable OnCenterClickedListener mOnCenterClickedListener = null;
     private boolean mEnabled = true;
     private boolean mShowIndicator = true;
-    private float mMinValue = 0f;
-    private float mMaxValue = 100f;
-    private @FloatRange(from=0) float mSpeedMultiplier = 1f;
-    private float mProgress = 0f;
     private boolean mShowText = true;
-    private @FloatRange(from=0,to=1) float mRingWidthFactor = 0.5f;
     private @Nullable String mProgressText = null;
     private boolean mShowInnerCircle = true;
-    private @ColorInt int mRingColor = Color.rgb(192, 255, 140); //LIGHT LIME
-    private @ColorInt int mInnerCircleColor = Color.WHITE;
-    private @ColorInt int mProgressTextColor = Color.BLACK;
-    private @FloatRange(from=0) float mProgressTextSize = Utils.convertDpToPixel(getResources(), 24f);
-
-    // settable by the client programmatically
+    private @ColorInt int mRingColor;
+    private @ColorInt int mInnerCircleColor;
+    private @ColorInt int mProgressTextColor;
+    private @FloatRange(from=0) float mProgressTextSize;
+    private boolean mProgressTextAutoFit = false;
+    private boolean mCacheStaticLayers = false;
+    private @DispatchMode int mDispatchMode = DISPATCH_IMMEDIATE;
+    private int mDispatchInterval = 100;
+    private boolean mFlingEnabled = false;
+
+    // settable by the client programmatically. Shared with the style until changed
     private Paint mRingPaint;
     private Paint mInnerCirclePaint;
     private Paint mProgressTextPaint;
-    private NumberFormat mProgressTextFormat = new DecimalFormat("###,###,###,##0.0");
+    private NumberFormat mProgressTextFormat;
+    private boolean mRingPaintShared;
+    private boolean mInnerCirclePaintShared;
+    private boolean mProgressTextPaintShared;
+    private boolean mProgressTextFormatShared;
+    private ProgressTextBuffer mProgressTextBuffer;
+    private final ProgressTextFitter mProgressTextFitter = new ProgressTextFitter();
 
     // private
+    // MotionEvent.AXIS_SCROLL, added in API 26
+    private static final int AXIS_SCROLL = 26;
+    // a rotary turn is over after this long without events
+    private static final long ROTARY_IDLE_MS = 250;
+    private static final float AMBIENT_OUTLINE_DP = 1f;
+    private static final float BURN_IN_SHIFT_DP = 3f;
+    // pairs of x, y shifts, in units of BURN_IN_SHIFT_DP, visited one per ambient update
+    private static final int[] BURN_IN_OFFSETS = {0, 0, 1, 0, 1, 1, 0, 1, -1, 1, -1, 0, -1, -1, 0, -1, 1, -1};
+    private final SeekBarEngine mEngine = new SeekBarEngine(VELOCITY_STRATEGY_LEAST_SQUARES);
     private RectF mViewBox = new RectF();
-    private int mDimAlpha = 80;
     private GestureDetector mGestureDetector;
-    private boolean mTouching = false;
-    private @FloatRange(from=0,to=360) float mTouchAngle = 0f;
-    private AngularVelocityTracker mAngularVelocityTracker;
+    private ProgressDispatcher mProgressDispatcher;
+    private ProgressFeed mProgressFeed;
+    private @ProgressSource int mProgressSource = SOURCE_PROGRAM;
+    private FrameScheduler mFlingScheduler;
+    private float mRotaryDegreesPerUnit = 15f;
+    private boolean mRotating = false;
+    private float mRotaryFrameStartProgress;
+    private FrameScheduler mRotaryScheduler;
+    private Runnable mRotaryIdleRunnable;
+    private long mLastFlingFrameNanos = -1;
+    private ProgressAnimator mProgressAnimator;
+    private boolean mAmbient = false;
+    private boolean mBurnInProtection = false;
+    private int mBurnInStep = 0;
+    private boolean mAmbientRedrawPending = false;
+    private final AmbientPaintState mAmbientRingState = new AmbientPaintState();
+    private final AmbientPaintState mAmbientTextState = new AmbientPaintState();
+    private float mStepSize = 0f;
+    private boolean mSnapToDisplayedPrecision = false;
+    private @Nullable StaticLayerCache mStaticLayerCache = null;
+    private @Nullable ComponentCallbacks mTrimMemoryCallbacks = null;
+    private final Rect mDirtyRect = new Rect();
+    private final RectF mIndicatorBounds = new RectF();
+    private final Rect mProgressTextBounds = new Rect();
+    private boolean mProgressTextBoundsValid = false;
+    private long mSkippedRedrawCount = 0;
+    private long mPartialRedrawCount = 0;
+    private @Nullable MetricsSink mMetricsSink = null;
+    // only recorded while there is a sink
+    private @Nullable SeekBarMetrics mMetrics = null;
+    private @Nullable SeekBarMetrics.Snapshot mMetricsSnapshot = null;
 
     //region Constructor
     public CircularSeekBar(Context context) {
@@ -92,71 +228,220 @@ public class CircularSeekBar extends View {
         super(context, attrs, defStyleAttr);
         init(context, attrs, defStyleAttr);
     }
+
+    /**
+     * @param context
+     * @param style shared by all the seek bars created with it, see {@link CircularSeekBarStyle#obtain}
+     */
+    public CircularSeekBar(Context context, @NonNull CircularSeekBarStyle style) {
+        super(context);
+        init(style);
+    }
     //endregion
 
     private void init(Context context, @Nullable AttributeSet attrs, int defStyle) {
-        TypedArray a = context.getTheme().obtainStyledAttributes(
-                attrs,
-                R.styleable.CircularSeekBar,
-                0,
-                0);
-        try {
-            mEnabled = a.getBoolean(R.styleable.CircularSeekBar_enabled, mEnabled);
-            mShowIndicator = a.getBoolean(R.styleable.CircularSeekBar_showIndicator, mShowIndicator);
-            mMinValue = a.getFloat(R.styleable.CircularSeekBar_min, mMinValue);
-            mMaxValue = a.getFloat(R.styleable.CircularSeekBar_max, mMaxValue);
-            mSpeedMultiplier = a.getFloat(R.styleable.CircularSeekBar_speedMultiplier, mSpeedMultiplier);
-            mProgress = a.getFloat(R.styleable.CircularSeekBar_progress, mProgress);
-            mShowText = a.getBoolean(R.styleable.CircularSeekBar_showProgressText, mShowText);
-            mRingWidthFactor = a.getFloat(R.styleable.CircularSeekBar_ringWidth, mRingWidthFactor);
-            mProgressText = a.getString(R.styleable.CircularSeekBar_progressText);
-            mShowInnerCircle = a.getBoolean(R.styleable.CircularSeekBar_showInnerCircle, mShowInnerCircle);
-            mRingColor = a.getColor(R.styleable.CircularSeekBar_ringColor, mRingColor);
-            mInnerCircleColor = a.getColor(R.styleable.CircularSeekBar_innerCircleColor, mInnerCircleColor);
-            mProgressTextColor = a.getColor(R.styleable.CircularSeekBar_progressTextColor, mProgressTextColor);
-            mProgressTextSize = Utils.convertDpToPixel(getResources(), a.getFloat(R.styleable.CircularSeekBar_progressTextSize, mProgressTextSize));
-        } finally {
-            a.recycle();
-        }
-
-        mRingPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
-        mRingPaint.setStyle(Style.FILL);
-        mRingPaint.setColor(mRingColor);
-
-        mInnerCirclePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
-        mInnerCirclePaint.setStyle(Style.FILL);
-        mInnerCirclePaint.setColor(mInnerCircleColor);
-
-        mProgressTextPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
-        mProgressTextPaint.setStyle(Style.STROKE);
-        mProgressTextPaint.setTextAlign(Align.CENTER);
-        mProgressTextPaint.setColor(mProgressTextColor);
-        mProgressTextPaint.setTextSize(mProgressTextSize);
-
-        mGestureDetector = new GestureDetector(getContext(), new GestureListener());
+        init(CircularSeekBarStyle.obtain(context, attrs));
+    }
+
+    private void init(CircularSeekBarStyle style) {
+        applyStyle(style);
+
+        mProgressDispatcher = new ProgressDispatcher(new ProgressDispatcher.Target() {
+            @Override
+            public void dispatchProgressChanged(float progress, int source, int mergedUpdates) {
+                CircularSeekBar.this.dispatchProgressChanged(progress, source, mergedUpdates);
+            }
+        });
+        mProgressDispatcher.setMode(mDispatchMode);
+        mProgressDispatcher.setInterval(mDispatchInterval);
+        mFlingScheduler = FrameScheduler.create(new FrameScheduler.Callback() {
+            @Override
+            public void doFrame(long frameTimeNanos) {
+                doFlingFrame(frameTimeNanos);
+            }
+        });
+        mRotaryScheduler = FrameScheduler.create(new FrameScheduler.Callback() {
+            @Override
+            public void doFrame(long frameTimeNanos) {
+                doRotaryFrame();
+            }
+        });
+        mRotaryIdleRunnable = new Runnable() {
+            @Override
+            public void run() {
+                finishRotary();
+            }
+        };
+        mProgressAnimator = new ProgressAnimator(new ProgressAnimator.Target() {
+            @Override
+            public float getAnimationStartProgress() {
+                return mEngine.getProgress();
+            }
+
+            @Override
+            public void applyAnimatedProgress(float progress) {
+                final float oldProgress = mEngine.getProgress();
+                mEngine.setProgress(mEngine.clamp(progress));
+                if (mEngine.getProgress() != oldProgress) {
+                    mProgressDispatcher.onProgressChanged(mEngine.getProgress(), SOURCE_ANIMATION);
+                }
+                invalidateChanges(oldProgress, mEngine.isTouching(), mEngine.getTouchAngle());
+            }
+        });
+        mProgressFeed = new ProgressFeed(new ProgressFeed.Target() {
+            @Override
+            public boolean applyFeedProgress(float progress) {
+                if (mEngine.isTouching() || mEngine.isFlinging() || mRotating) {
+                    return false;
+                }
+                setProgress(progress);
+                return true;
+            }
+        });
+        if (mCacheStaticLayers) {
+            mStaticLayerCache = new StaticLayerCache();
+        }
+    }
+
+    /**
+     * Take the attributes of the style, sharing its Paints and format until they are changed
+     */
+    private void applyStyle(CircularSeekBarStyle style) {
+        mEnabled = style.mEnabled;
+        mShowIndicator = style.mShowIndicator;
+        mEngine.setMin(style.mMin);
+        mEngine.setMax(style.mMax);
+        mEngine.setSpeedMultiplier(style.mSpeedMultiplier);
+        mEngine.setAccelerationCurve(style.mAccelerationCurve);
+        mEngine.setVelocityStrategy(style.mVelocityStrategy);
+        mEngine.setValueScale(style.mValueScale);
+        mProgressTextFormat = style.mProgressTextFormat;
+        mProgressTextFormatShared = true;
+        mProgressTextBuffer = new ProgressTextBuffer(mProgressTextFormat);
+        mStepSize = style.mStepSize;
+        mSnapToDisplayedPrecision = style.mSnapToDisplayedPrecision;
+        mEngine.setStepSize(getEffectiveStepSize());
+        mEngine.setProgress(style.mProgress);
+        mShowText = style.mShowText;
+        mEngine.setRingWidthFactor(style.mRingWidthFactor);
+        mProgressText = style.mProgressText;
+        mShowInnerCircle = style.mShowInnerCircle;
+        mRingColor = style.mRingColor;
+        mInnerCircleColor = style.mInnerCircleColor;
+        mProgressTextColor = style.mProgressTextColor;
+        mProgressTextSize = style.mProgressTextSize;
+        mProgressTextAutoFit = style.mProgressTextAutoFit;
+        mCacheStaticLayers = style.mCacheStaticLayers;
+        //noinspection WrongConstant
+        mDispatchMode = style.mDispatchMode;
+        mDispatchInterval = style.mDispatchInterval;
+        mFlingEnabled = style.mFling;
+        mEngine.setFlingFriction(style.mFlingFriction);
+        mRotaryDegreesPerUnit = style.mRotaryDegreesPerUnit;
+
+        mRingPaint = style.mRingPaint;
+        mInnerCirclePaint = style.mInnerCirclePaint;
+        mProgressTextPaint = style.mProgressTextPaint;
+        mRingPaintShared = true;
+        mInnerCirclePaintShared = true;
+        mProgressTextPaintShared = true;
+    }
+
+    private Paint getMutableRingPaint() {
+        if (mRingPaintShared) {
+            mRingPaint = new Paint(mRingPaint);
+            mRingPaintShared = false;
+        }
+        return mRingPaint;
+    }
+
+    private Paint getMutableInnerCirclePaint() {
+        if (mInnerCirclePaintShared) {
+            mInnerCirclePaint = new Paint(mInnerCirclePaint);
+            mInnerCirclePaintShared = false;
+        }
+        return mInnerCirclePaint;
+    }
+
+    private Paint getMutableProgressTextPaint() {
+        if (mProgressTextPaintShared) {
+            mProgressTextPaint = new Paint(mProgressTextPaint);
+            mProgressTextPaintShared = false;
+        }
+        return mProgressTextPaint;
     }
 
     //region Lifecycle
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        final int diameter = SeekBarRenderer.getIntrinsicDiameter(getResources(), mEngine, mShowText, mProgressText,
+                mProgressTextPaint, mProgressTextFormat);
+        setMeasuredDimension(resolveSize(diameter, widthMeasureSpec), resolveSize(diameter, heightMeasureSpec));
+    }
+
     @Override
     protected void onSizeChanged(int xNew, int yNew, int xOld, int yOld){
         super.onSizeChanged(xNew, yNew, xOld, yOld);
 
+        mEngine.setSize(xNew, yNew);
         initViewBox();
-        mAngularVelocityTracker = new AngularVelocityTracker(getCenter().x, getCenter().y);
+        invalidateStaticLayers();
+        invalidateProgressTextLayout();
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        registerTrimMemoryCallbacks();
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        if (mProgressAnimator.isRunning()) {
+            mProgressAnimator.end();
+        }
+        if (mEngine.isFlinging()) {
+            mEngine.stopFling();
+            finishFling();
+        }
+        if (mRotating) {
+            finishRotary();
+        }
+        // deliver the last value rather than dropping it
+        mProgressDispatcher.flush();
+        reportMetrics();
+        unregisterTrimMemoryCallbacks();
+        if (mStaticLayerCache != null) {
+            // nothing draws it anymore
+            mStaticLayerCache.recycle();
+        }
     }
 
     @Override
     protected void onDraw(Canvas canvas) {
         super.onDraw(canvas);
 
-        drawWholeCircle(canvas);
+        if (mMetrics == null) {
+            drawFrame(canvas);
+        } else {
+            final long start = System.nanoTime();
+            drawFrame(canvas);
+            mMetrics.recordDraw(System.nanoTime() - start, SystemClock.uptimeMillis());
+        }
+    }
 
-        if (mShowIndicator && mTouching) {
-            drawProgressArc(canvas);
+    private void drawFrame(Canvas canvas) {
+        if (mAmbient) {
+            drawAmbient(canvas);
+            return;
         }
 
-        if (mShowInnerCircle) {
-            drawInnerCircle(canvas);
+        if (mStaticLayerCache != null) {
+            drawCachedLayers(canvas);
+        } else {
+            SeekBarRenderer.drawLayers(canvas, mEngine, mViewBox, mRingPaint, mInnerCirclePaint,
+                    mShowIndicator, mShowInnerCircle);
         }
 
         if (mShowText) {
@@ -173,79 +458,223 @@ public class CircularSeekBar extends View {
     @Override
     public boolean onTouchEvent(MotionEvent event) {
         if (mEnabled) {
+            if (mGestureDetector == null) {
+                // most seek bars on a screen are never touched
+                mGestureDetector = new GestureDetector(getContext(), new GestureListener());
+            }
             // if the detector recognized a gesture, consume it
             if (mGestureDetector.onTouchEvent(event)) {
                 return true;
             }
+            if (mMetrics != null) {
+                // resolved by invalidateChanges: a frame request or a skipped redraw
+                mMetrics.recordEvent(event.getEventTime());
+            }
 
-            // get the distance from the touch to the center of the view
-            float distance = distanceToCenter(event.getX(), event.getY());
-            float outerCircleRadius = getOuterCircleRadius();
-            float innerCircleRadius = getInnerCircleRadius();
-
-            // touch gestures only work when touches are made exactly on the bar/arc
-            if (distance >= innerCircleRadius && distance < outerCircleRadius) {
-                switch (event.getAction()) {
-                    case MotionEvent.ACTION_DOWN:
-                        mTouching = true;
-                        trackTouchStart(event);
-                        break;
-                    case MotionEvent.ACTION_MOVE:
-                        mTouching = true;
-                        trackTouchMove(event);
-                        break;
-                    case MotionEvent.ACTION_UP:
-                    case MotionEvent.ACTION_CANCEL:
-                        mTouching = false;
-                        trackTouchStop();
-                        break;
+            final float oldProgress = mEngine.getProgress();
+            final boolean wasTouching = mEngine.isTouching();
+            final float oldTouchAngle = mEngine.getTouchAngle();
+
+            int action = event.getAction();
+            if (action == MotionEvent.ACTION_DOWN) {
+                // the user takes over from any animation
+                mProgressAnimator.cancel();
+                if (mRotating) {
+                    finishRotary();
+                }
+            }
+            if (action == MotionEvent.ACTION_DOWN && mEngine.isFlinging()) {
+                // catch the fling, and close its tracking before a new one starts
+                mEngine.stopFling();
+                finishFling();
+            }
+            if (action == MotionEvent.ACTION_MOVE) {
+                // high-rate digitizers batch several samples into a single event
+                final int historySize = event.getHistorySize();
+                for (int h = 0; h < historySize; h++) {
+                    mEngine.addHistoricalSample(event.getHistoricalX(h), event.getHistoricalY(h),
+                            event.getHistoricalEventTime(h));
                 }
-            } else {
-                mTouching = false;
-                mAngularVelocityTracker.clear();
             }
 
-            invalidate();
+            switch (mEngine.onTouch(action, event.getX(), event.getY(), event.getEventTime())) {
+                case SeekBarEngine.RESULT_START:
+                    trackTouchStart();
+                    break;
+                case SeekBarEngine.RESULT_MOVE:
+                    // moves within the same step are not worth a callback
+                    if (mEngine.getProgress() != oldProgress) {
+                        trackTouchMove();
+                    }
+                    break;
+                case SeekBarEngine.RESULT_STOP:
+                    if (mFlingEnabled && mEngine.startFling()) {
+                        // tracking stops when the fling does
+                        startFling();
+                    } else {
+                        trackTouchStop();
+                    }
+                    break;
+            }
+
+            invalidateChanges(oldProgress, wasTouching, oldTouchAngle);
             return true;
         } else {
             return super.onTouchEvent(event);
         }
     }
 
-    private void trackTouchStart(MotionEvent event) {
-        mAngularVelocityTracker.clear();
-        updateProgress(event.getX(), event.getY(), mAngularVelocityTracker.getAngularVelocity());
-        if (mOnCircularSeekBarChangeListener != null) {
-            mOnCircularSeekBarChangeListener.onStartTrackingTouch(this);
+    @Override
+    public boolean onGenericMotionEvent(MotionEvent event) {
+        if (mEnabled
+                && Build.VERSION.SDK_INT >= Build.VERSION_CODES.HONEYCOMB_MR1
+                && event.getAction() == MotionEvent.ACTION_SCROLL) {
+            float units = event.getAxisValue(AXIS_SCROLL);
+            if (units != 0 && !mEngine.isTouching()) {
+                onRotary(units, event.getEventTime());
+                return true;
+            }
+        }
+        return super.onGenericMotionEvent(event);
+    }
+
+    /**
+     * @param units AXIS_SCROLL value, negative when turned clockwise
+     * @param eventTime
+     */
+    private void onRotary(float units, long eventTime) {
+        if (mMetrics != null) {
+            // resolved by the rotary frame
+            mMetrics.recordEvent(eventTime);
+        }
+        if (!mRotating) {
+            mProgressAnimator.cancel();
+            if (mEngine.isFlinging()) {
+                mEngine.stopFling();
+                finishFling();
+            }
+            mRotating = true;
+            mEngine.resetRotary();
+            trackTouchStart();
+        }
+        if (!mRotaryScheduler.isScheduled()) {
+            mRotaryFrameStartProgress = mEngine.getProgress();
+            mRotaryScheduler.schedule();
+        }
+        // the engine tracks every event for the turn rate, the listener and redraw wait for the frame
+        mEngine.onRotary(-units * mRotaryDegreesPerUnit, eventTime);
+
+        removeCallbacks(mRotaryIdleRunnable);
+        postDelayed(mRotaryIdleRunnable, ROTARY_IDLE_MS);
+    }
+
+    private void doRotaryFrame() {
+        final float oldProgress = mRotaryFrameStartProgress;
+        if (mEngine.getProgress() != oldProgress) {
+            mProgressDispatcher.onProgressChanged(mEngine.getProgress(), SOURCE_ROTARY);
+            invalidateChanges(oldProgress, mEngine.isTouching(), mEngine.getTouchAngle());
+        } else {
+            // turned within the same step
+            skipRedraw();
+        }
+    }
+
+    private void finishRotary() {
+        if (mRotaryScheduler.isScheduled()) {
+            mRotaryScheduler.cancel();
+            doRotaryFrame();
+        }
+        removeCallbacks(mRotaryIdleRunnable);
+        mRotating = false;
+        trackTouchStop();
+    }
+
+    /**
+     * Stop gestures, flings, rotary turns and animations without telling the listener
+     */
+    private void releaseInteraction() {
+        mProgressAnimator.cancel();
+        mEngine.stopFling();
+        mFlingScheduler.cancel();
+        mEngine.resetTouch();
+        if (mRotating) {
+            mRotating = false;
+            mRotaryScheduler.cancel();
+            removeCallbacks(mRotaryIdleRunnable);
         }
+        mEngine.resetRotary();
     }
 
-    private void trackTouchMove(MotionEvent event) {
-        mAngularVelocityTracker.addMovement(event);
-        updateProgress(event.getX(), event.getY(), mAngularVelocityTracker.getAngularVelocity());
+    private void trackTouchStart() {
+        mProgressDispatcher.flush();
         if (mOnCircularSeekBarChangeListener != null) {
-            mOnCircularSeekBarChangeListener.onProgressChanged(this, mProgress, true);
+            mOnCircularSeekBarChangeListener.onStartTrackingTouch(this);
         }
     }
 
+    private void trackTouchMove() {
+        mProgressDispatcher.onProgressChanged(mEngine.getProgress(), SOURCE_TOUCH);
+    }
+
     private void trackTouchStop() {
-        mAngularVelocityTracker.clear();
+        mProgressDispatcher.flush();
         if (mOnCircularSeekBarChangeListener != null) {
             mOnCircularSeekBarChangeListener.onStopTrackingTouch(this);
         }
+        reportMetrics();
+    }
+
+    private void startFling() {
+        mLastFlingFrameNanos = -1;
+        mFlingScheduler.schedule();
+    }
+
+    private void doFlingFrame(long frameTimeNanos) {
+        float dtMillis = mLastFlingFrameNanos < 0
+                ? FrameScheduler.FALLBACK_FRAME_MS
+                : (frameTimeNanos - mLastFlingFrameNanos) / 1000000f;
+        mLastFlingFrameNanos = frameTimeNanos;
+
+        final float oldProgress = mEngine.getProgress();
+        boolean flinging = mEngine.stepFling(dtMillis);
+        if (mEngine.getProgress() != oldProgress) {
+            mProgressDispatcher.onProgressChanged(mEngine.getProgress(), SOURCE_FLING);
+            invalidateChanges(oldProgress, mEngine.isTouching(), mEngine.getTouchAngle());
+        }
+        if (flinging) {
+            mFlingScheduler.schedule();
+        } else {
+            finishFling();
+        }
+    }
+
+    private void finishFling() {
+        mFlingScheduler.cancel();
+        trackTouchStop();
+    }
+
+    private void dispatchProgressChanged(float progress, @ProgressSource int source, int mergedUpdates) {
+        OnCircularSeekBarChangeListener listener = mOnCircularSeekBarChangeListener;
+        boolean fromUser = source == SOURCE_TOUCH || source == SOURCE_FLING || source == SOURCE_ROTARY;
+        mProgressSource = source;
+        final long start = mMetrics != null ? System.nanoTime() : 0;
+        if (listener instanceof OnCoalescedProgressChangeListener) {
+            ((OnCoalescedProgressChangeListener) listener).onProgressChanged(this, progress, fromUser, mergedUpdates);
+        } else if (listener != null) {
+            listener.onProgressChanged(this, progress, fromUser);
+        }
+        if (mMetrics != null) {
+            mMetrics.recordDispatch(System.nanoTime() - start, mergedUpdates);
+        }
     }
 
     private class GestureListener extends GestureDetector.SimpleOnGestureListener {
         @Override
         public boolean onSingleTapUp(MotionEvent event) {
-            // get the distance from the touch to the center of the view
-            float distance = distanceToCenter(event.getX(), event.getY());
-            float r = getOuterCircleRadius();
-
-            // touch gestures only work when touches are made exactly on the bar/arc
+            // taps only work when made on the inner circle
             if (mOnCenterClickedListener != null
-                    && distance <= r - r * mRingWidthFactor) {
-                mOnCenterClickedListener.onCenterClicked(CircularSeekBar.this, mProgress);
+                    && mEngine.isInCenter(event.getX(), event.getY())) {
+                mOnCenterClickedListener.onCenterClicked(CircularSeekBar.this, mEngine.getProgress());
             }
             return false;
         }
@@ -268,6 +697,34 @@ public class CircularSeekBar extends View {
     public void setOnCenterClickedListener(@Nullable OnCenterClickedListener listener) {
         mOnCenterClickedListener = listener;
     }
+
+    /**
+     * Record draw time, input-to-frame latency, input events per frame, listener time and skipped or coalesced
+     * redraws, and report them to the sink. Nothing is measured without a sink
+     * @param sink
+     */
+    public void setMetricsSink(@Nullable MetricsSink sink) {
+        mMetricsSink = sink;
+        if (sink == null) {
+            mMetrics = null;
+        } else if (mMetrics == null) {
+            mMetrics = new SeekBarMetrics();
+            mMetricsSnapshot = new SeekBarMetrics.Snapshot();
+        }
+    }
+
+    /**
+     * Copy the metrics recorded since the sink was last called, without waiting for the end of the gesture
+     * @param out
+     * @return false if there is no sink, so nothing was recorded
+     */
+    public boolean getMetricsSnapshot(@NonNull SeekBarMetrics.Snapshot out) {
+        if (mMetrics == null) {
+            return false;
+        }
+        mMetrics.snapshot(out);
+        return true;
+    }
     //endregion
 
     //region Public attribute
@@ -276,8 +733,12 @@ public class CircularSeekBar extends View {
      * @param enable
      */
     public void setIndicator(boolean enable) {
+        if (enable == mShowIndicator) {
+            skipRedraw();
+            return;
+        }
         mShowIndicator = enable;
-        invalidate();
+        invalidateAll();
     }
 
     public boolean isIndicatorEnabled() {
@@ -289,12 +750,12 @@ public class CircularSeekBar extends View {
      * @param min
      */
     public void setMin(float min) {
-        mMinValue = min;
-        setProgress(Math.min(mMinValue, mProgress));
+        mEngine.setMin(min);
+        setProgress(Math.min(min, mEngine.getProgress()));
     }
 
     public float getMin() {
-        return mMinValue;
+        return mEngine.getMin();
     }
 
     /**
@@ -302,12 +763,12 @@ public class CircularSeekBar extends View {
      * @param max
      */
     public void setMax(float max) {
-        mMaxValue = max;
-        setProgress(Math.max(mMaxValue, mProgress));
+        mEngine.setMax(max);
+        setProgress(Math.max(max, mEngine.getProgress()));
     }
 
     public float getMax() {
-        return mMaxValue;
+        return mEngine.getMax();
     }
 
     /**
@@ -315,23 +776,163 @@ public class CircularSeekBar extends View {
      * @param speedMultiplier 0-1 to decrease change, 1+ to increase change
      */
     public void setSpeedMultiplier(@FloatRange(from=0) float speedMultiplier) {
-        mSpeedMultiplier = speedMultiplier;
+        mEngine.setSpeedMultiplier(speedMultiplier);
     }
 
     public float getSpeedMultiplier() {
-        return mSpeedMultiplier;
+        return mEngine.getSpeedMultiplier();
     }
 
     /**
-     * Set current value of the progress
+     * Select how the speed of a turn maps to the speed of the progress, e.g. {@link AccelerationCurve#precision()}
+     * for fine adjustments on slow turns
+     * @param curve {@link AccelerationCurve#linear()} by default
+     */
+    public void setAccelerationCurve(@NonNull AccelerationCurve curve) {
+        mEngine.setAccelerationCurve(curve);
+    }
+
+    public @NonNull AccelerationCurve getAccelerationCurve() {
+        return mEngine.getAccelerationCurve();
+    }
+
+    /**
+     * Select how turning the ring maps to values between min and max, e.g. {@link ValueScale#logarithmic()}
+     * for frequencies. The progress is kept
+     * @param scale {@link ValueScale#linear()} by default
+     */
+    public void setValueScale(@NonNull ValueScale scale) {
+        mEngine.setValueScale(scale);
+    }
+
+    public @NonNull ValueScale getValueScale() {
+        return mEngine.getValueScale();
+    }
+
+    /**
+     * Quantise the progress to multiples of the step, counted from min. The listener and the progress text
+     * are only updated when the quantised value changes
+     * @param stepSize 0 (default) for a continuous progress
+     */
+    public void setStepSize(@FloatRange(from=0) float stepSize) {
+        mStepSize = stepSize;
+        applyStepSize();
+    }
+
+    public float getStepSize() {
+        return mStepSize;
+    }
+
+    /**
+     * Quantise the progress to the precision shown by the progress text format, e.g. 0.1 for "0.0".
+     * If a step size is set too, the coarser of both is used
+     * @param snap
+     */
+    public void setSnapToDisplayedPrecision(boolean snap) {
+        mSnapToDisplayedPrecision = snap;
+        applyStepSize();
+    }
+
+    public boolean isSnapToDisplayedPrecision() {
+        return mSnapToDisplayedPrecision;
+    }
+
+    /**
+     * Select how the angular velocity of the user's finger is estimated
+     * @param strategy {@link #VELOCITY_STRATEGY_LEAST_SQUARES} (default) or {@link #VELOCITY_STRATEGY_TWO_SAMPLE}
+     */
+    public void setVelocityStrategy(@VelocityStrategy int strategy) {
+        mEngine.setVelocityStrategy(strategy);
+    }
+
+    public @VelocityStrategy int getVelocityStrategy() {
+        //noinspection WrongConstant
+        return mEngine.getVelocityStrategy();
+    }
+
+    /**
+     * Set how much a rotary input, like a watch crown, turns the ring. The view needs focus to receive it
+     * @param degrees rotation per unit of MotionEvent.AXIS_SCROLL, typically one detent
+     */
+    public void setRotaryDegreesPerUnit(float degrees) {
+        mRotaryDegreesPerUnit = degrees;
+    }
+
+    public float getRotaryDegreesPerUnit() {
+        return mRotaryDegreesPerUnit;
+    }
+
+    /**
+     * Select how touch angles are computed, trading accuracy for speed
+     * @param kernel {@link AngleKernel#exact()} (default), {@link AngleKernel#polynomial()} or {@link AngleKernel#lookupTable(int)}
+     */
+    public void setAngleKernel(@NonNull AngleKernel kernel) {
+        mEngine.setAngleKernel(kernel);
+    }
+
+    public @NonNull AngleKernel getAngleKernel() {
+        return mEngine.getAngleKernel();
+    }
+
+    /**
+     * Set current value of the progress. Must be called from the UI thread, see {@link #postProgress(float)}
      * @param progress
      */
     public void setProgress(float progress) {
-        mProgress = progress;
-        if (mOnCircularSeekBarChangeListener != null) {
-            mOnCircularSeekBarChangeListener.onProgressChanged(this, mProgress, false);
-        }
-        invalidate();
+        mProgressAnimator.cancel();
+        final float oldProgress = mEngine.getProgress();
+        mEngine.setProgress(progress);
+        mProgressDispatcher.onProgressChanged(mEngine.getProgress(), SOURCE_PROGRAM);
+        invalidateChanges(oldProgress, mEngine.isTouching(), mEngine.getTouchAngle());
+    }
+
+    /**
+     * Animate the progress from its current value to the given one, limited to min-max.
+     * Calling it again while animating retargets the running animation from wherever it is;
+     * {@link #setProgress(float)} or a touch cancel it.
+     * Updates are reported with {@link #SOURCE_ANIMATION}
+     * @param progress
+     * @param durationMillis
+     * @param interpolator
+     */
+    public void animateProgressTo(float progress, @IntRange(from=0) long durationMillis, @NonNull Interpolator interpolator) {
+        // nothing moves in ambient: jump to the end, drawn on the next ambient update
+        mProgressAnimator.start(mEngine.clamp(progress), mAmbient ? 0 : durationMillis, interpolator);
+    }
+
+    /**
+     * Animate the progress with a decelerating interpolator, see {@link #animateProgressTo(float, long, Interpolator)}
+     * @param progress
+     * @param durationMillis
+     */
+    public void animateProgressTo(float progress, @IntRange(from=0) long durationMillis) {
+        animateProgressTo(progress, durationMillis, ProgressAnimator.DEFAULT_INTERPOLATOR);
+    }
+
+    public void cancelProgressAnimation() {
+        mProgressAnimator.cancel();
+    }
+
+    public boolean isAnimatingProgress() {
+        return mProgressAnimator.isRunning();
+    }
+
+    /**
+     * Set the progress from any thread. Unlike {@link #setProgress(float)}, which must be called from the UI thread,
+     * this never blocks the caller: values are collapsed so that the view updates at most once per frame.
+     * Values arriving while the user drags the ring are dropped.
+     * @param progress
+     * @see #getProgressFeed()
+     */
+    public void postProgress(float progress) {
+        mProgressFeed.post(progress);
+    }
+
+    /**
+     * @return the feed behind {@link #postProgress(float)}, with counters of posted, coalesced and dropped values
+     */
+    public @NonNull ProgressFeed getProgressFeed() {
+        return mProgressFeed;
     }
 
     /**
@@ -341,7 +942,7 @@ public class CircularSeekBar extends View {
      * @return
      */
     public float getProgress() {
-        return mProgress;
+        return mEngine.getProgress();
     }
 
     /**
@@ -349,8 +950,12 @@ public class CircularSeekBar extends View {
      * @param enable
      */
     public void setEnabled(boolean enable) {
+        if (enable == mEnabled) {
+            skipRedraw();
+            return;
+        }
         mEnabled = enable;
-        invalidate();
+        invalidateAll();
     }
 
     public boolean isEnabled() {
@@ -362,8 +967,12 @@ public class CircularSeekBar extends View {
      * @param enabled
      */
     public void setProgressText(boolean enabled) {
+        if (enabled == mShowText) {
+            skipRedraw();
+            return;
+        }
         mShowText = enabled;
-        invalidate();
+        invalidateAll();
     }
 
     public boolean isProgressTextEnabled() {
@@ -371,16 +980,25 @@ public class CircularSeekBar extends View {
     }
 
     /**
-     * Set the thickness of the outer ring (touchable area), relative to the size of the whole view
+     * Set the thickness of the outer ring (touchable area), relative to the size of the whole view.
+     * The geometry is updated in place, without a new layout: with wrap_content, call requestLayout()
+     * afterwards if the size should follow
      * @param factor
      */
     public void setRingWidthFactor(@FloatRange(from=0f,to=1f) float factor) {
-        mRingWidthFactor = factor;
-        invalidate();
+        if (factor == mEngine.getRingWidthFactor()) {
+            skipRedraw();
+            return;
+        }
+        mEngine.setRingWidthFactor(factor);
+        invalidateStaticLayers();
+        // the inner circle the text fits in changed
+        invalidateProgressTextLayout();
+        invalidateAll();
     }
 
     public float getRingWidthFactor() {
-        return mRingWidthFactor;
+        return mEngine.getRingWidthFactor();
     }
 
     /**
@@ -388,8 +1006,12 @@ public class CircularSeekBar extends View {
      * @param text
      */
     public void setProgressText(@Nullable String text) {
+        if (text == null ? mProgressText == null : text.equals(mProgressText)) {
+            skipRedraw();
+            return;
+        }
         mProgressText = text;
-        invalidate();
+        invalidateAll();
     }
 
     public @Nullable String getProgressText() {
@@ -401,8 +1023,13 @@ public class CircularSeekBar extends View {
      * @param enable
      */
     public void setInnerCircle(boolean enable) {
+        if (enable == mShowInnerCircle) {
+            skipRedraw();
+            return;
+        }
         mShowInnerCircle = enable;
-        invalidate();
+        invalidateStaticLayers();
+        invalidateAll();
     }
 
     public boolean isInnerCircleEnabled() {
@@ -414,9 +1041,14 @@ public class CircularSeekBar extends View {
      * @param color
      */
     public void setRingColor(@ColorInt int color) {
+        if (color == mRingColor) {
+            skipRedraw();
+            return;
+        }
         mRingColor = color;
-        mRingPaint.setColor(mRingColor);
-        invalidate();
+        getMutableRingPaint().setColor(mRingColor);
+        invalidateStaticLayers();
+        invalidateAll();
     }
 
     public @ColorInt int getRingColor() {
@@ -424,9 +1056,14 @@ public class CircularSeekBar extends View {
     }
 
     public void setInnerCircleColor(@ColorInt int color) {
+        if (color == mInnerCircleColor) {
+            skipRedraw();
+            return;
+        }
         mInnerCircleColor = color;
-        mInnerCirclePaint.setColor(mInnerCircleColor);
-        invalidate();
+        getMutableInnerCirclePaint().setColor(mInnerCircleColor);
+        invalidateStaticLayers();
+        invalidateAll();
     }
 
     public @ColorInt int getInnerCircleColor() {
@@ -434,9 +1071,13 @@ public class CircularSeekBar extends View {
     }
 
     public void setProgressTextColor(@ColorInt int color) {
+        if (color == mProgressTextColor) {
+            skipRedraw();
+            return;
+        }
         mProgressTextColor = color;
-        mProgressTextPaint.setColor(mProgressTextColor);
-        invalidate();
+        getMutableProgressTextPaint().setColor(mProgressTextColor);
+        invalidateAll();
     }
 
     public @ColorInt int getProgressTextColor() {
@@ -444,33 +1085,347 @@ public class CircularSeekBar extends View {
     }
 
     public void setProgressTextSize(@FloatRange(from=0) float pixels) {
+        if (pixels == mProgressTextSize) {
+            skipRedraw();
+            return;
+        }
         mProgressTextSize = pixels;
-        mProgressTextPaint.setTextSize(mProgressTextSize);
-        invalidate();
+        getMutableProgressTextPaint().setTextSize(mProgressTextSize);
+        invalidateProgressTextLayout();
+        invalidateAll();
     }
 
     public float getProgressTextSize() {
         return mProgressTextSize;
     }
+
+    /**
+     * Shrink the progress text when needed to fit in the inner circle, never above the progress text size.
+     * The size only changes with the number of characters, not on every value
+     * @param enable
+     */
+    public void setProgressTextAutoFit(boolean enable) {
+        if (enable == mProgressTextAutoFit) {
+            skipRedraw();
+            return;
+        }
+        mProgressTextAutoFit = enable;
+        if (!enable && mProgressTextPaint.getTextSize() != mProgressTextSize) {
+            getMutableProgressTextPaint().setTextSize(mProgressTextSize);
+        }
+        invalidateProgressTextLayout();
+        invalidateAll();
+    }
+
+    public boolean isProgressTextAutoFit() {
+        return mProgressTextAutoFit;
+    }
+
+    /**
+     * Rasterise the layers which don't change while dragging (dimmed ring and inner circle) once,
+     * instead of redrawing them on every frame. Costs one bitmap of the size of the ring per view,
+     * which is released when the view is detached or the system is low on memory
+     * @param enable
+     */
+    public void setStaticLayerCache(boolean enable) {
+        if (enable == mCacheStaticLayers) {
+            return;
+        }
+        mCacheStaticLayers = enable;
+        if (enable) {
+            mStaticLayerCache = new StaticLayerCache();
+            if (getWindowToken() != null) {
+                registerTrimMemoryCallbacks();
+            }
+        } else {
+            unregisterTrimMemoryCallbacks();
+            if (mStaticLayerCache != null) {
+                mStaticLayerCache.release();
+            }
+            mStaticLayerCache = null;
+        }
+        invalidateAll();
+    }
+
+    public boolean isStaticLayerCacheEnabled() {
+        return mCacheStaticLayers;
+    }
+
+    /**
+     * @return what caused the progress change being reported to {@link OnCircularSeekBarChangeListener#onProgressChanged},
+     * or the last one reported: {@link #SOURCE_PROGRAM}, {@link #SOURCE_TOUCH}, {@link #SOURCE_FLING}, {@link #SOURCE_ANIMATION}
+     * or {@link #SOURCE_ROTARY}
+     */
+    public @ProgressSource int getProgressSource() {
+        return mProgressSource;
+    }
+
+    /**
+     * Keep the progress moving after the user lifts the finger, slowing down with friction.
+     * {@link OnCircularSeekBarChangeListener#onStopTrackingTouch} is called once the fling ends or is caught by a touch,
+     * fling updates are reported with {@link #SOURCE_FLING}
+     * @param enable
+     */
+    public void setFling(boolean enable) {
+        mFlingEnabled = enable;
+    }
+
+    public boolean isFlingEnabled() {
+        return mFlingEnabled;
+    }
+
+    /**
+     * @param friction how fast a fling slows down: exponential decay rate of its speed, per second. 3 by default
+     */
+    public void setFlingFriction(@FloatRange(from=0) float friction) {
+        mEngine.setFlingFriction(friction);
+    }
+
+    public float getFlingFriction() {
+        return mEngine.getFlingFriction();
+    }
+
+    /**
+     * Choose how often progress changes are reported to the {@link OnCircularSeekBarChangeListener}.
+     * Start/stop callbacks are never delayed; pending progress changes are delivered before them
+     * @param mode {@link #DISPATCH_IMMEDIATE} (default), {@link #DISPATCH_PER_FRAME},
+     *             {@link #DISPATCH_THROTTLE} or {@link #DISPATCH_DEBOUNCE}
+     */
+    public void setDispatchMode(@DispatchMode int mode) {
+        mDispatchMode = mode;
+        mProgressDispatcher.setMode(mode);
+    }
+
+    public @DispatchMode int getDispatchMode() {
+        return mDispatchMode;
+    }
+
+    /**
+     * @param millis minimum time between two progress callbacks in {@link #DISPATCH_THROTTLE} mode,
+     *               quiet time before the progress callback in {@link #DISPATCH_DEBOUNCE} mode
+     */
+    public void setDispatchInterval(@IntRange(from=0) int millis) {
+        mDispatchInterval = millis;
+        mProgressDispatcher.setInterval(millis);
+    }
+
+    public int getDispatchInterval() {
+        return mDispatchInterval;
+    }
+
+    /**
+     * @return number of redraws avoided because nothing visible changed
+     */
+    public long getSkippedRedrawCount() {
+        return mSkippedRedrawCount;
+    }
+
+    /**
+     * @return number of redraws limited to the changed area (indicator and/or text) instead of the whole view
+     */
+    public long getPartialRedrawCount() {
+        return mPartialRedrawCount;
+    }
+
+    public void resetRedrawCounts() {
+        mSkippedRedrawCount = 0;
+        mPartialRedrawCount = 0;
+    }
     //endregion
 
     //region Public mutator
     /**
-     * Set the Paint used to draw the outer ring (touchable area)
+     * Apply a whole state at once, e.g. when a RecyclerView rebinds this seek bar to another item.
+     * The listener is not called, a gesture or animation in progress is dropped along with any progress
+     * change not dispatched yet, and the view is invalidated once
+     * @param state
+     * @see #unbind()
+     */
+    public void bind(@NonNull CircularSeekBarState state) {
+        releaseInteraction();
+        // pending changes belong to the previous item
+        mProgressDispatcher.discard();
+        mProgressFeed.discard();
+        mProgressSource = SOURCE_PROGRAM;
+
+        boolean staticLayersChanged = state.getRingColor() != mRingColor
+                || state.getInnerCircleColor() != mInnerCircleColor
+                || state.isInnerCircleEnabled() != mShowInnerCircle
+                || state.getRingWidthFactor() != mEngine.getRingWidthFactor();
+
+        mEnabled = state.isEnabled();
+        mShowIndicator = state.isIndicatorEnabled();
+        mShowText = state.isProgressTextEnabled();
+        mProgressText = state.getProgressText();
+        mShowInnerCircle = state.isInnerCircleEnabled();
+        mEngine.setRingWidthFactor(state.getRingWidthFactor());
+        mEngine.setMin(state.getMin());
+        mEngine.setMax(state.getMax());
+        mStepSize = state.getStepSize();
+        mEngine.setStepSize(getEffectiveStepSize());
+        mEngine.setProgress(state.getProgress());
+        if (state.getRingColor() != mRingColor) {
+            mRingColor = state.getRingColor();
+            getMutableRingPaint().setColor(mRingColor);
+        }
+        if (state.getInnerCircleColor() != mInnerCircleColor) {
+            mInnerCircleColor = state.getInnerCircleColor();
+            getMutableInnerCirclePaint().setColor(mInnerCircleColor);
+        }
+        if (state.getProgressTextColor() != mProgressTextColor) {
+            mProgressTextColor = state.getProgressTextColor();
+            getMutableProgressTextPaint().setColor(mProgressTextColor);
+        }
+        if (state.getProgressTextSize() != mProgressTextSize) {
+            mProgressTextSize = state.getProgressTextSize();
+            getMutableProgressTextPaint().setTextSize(mProgressTextSize);
+        }
+
+        if (staticLayersChanged) {
+            invalidateStaticLayers();
+        }
+        invalidateProgressTextLayout();
+        invalidateAll();
+    }
+
+    /**
+     * Fill the given state with the current one, to be changed and passed to {@link #bind(CircularSeekBarState)}
+     * @param outState
+     * @return outState
+     */
+    public @NonNull CircularSeekBarState getState(@NonNull CircularSeekBarState outState) {
+        outState.setMin(mEngine.getMin());
+        outState.setMax(mEngine.getMax());
+        outState.setProgress(mEngine.getProgress());
+        outState.setStepSize(mStepSize);
+        outState.setEnabled(mEnabled);
+        outState.setIndicator(mShowIndicator);
+        outState.setProgressText(mShowText);
+        outState.setProgressText(mProgressText);
+        outState.setInnerCircle(mShowInnerCircle);
+        outState.setRingWidthFactor(mEngine.getRingWidthFactor());
+        outState.setRingColor(mRingColor);
+        outState.setInnerCircleColor(mInnerCircleColor);
+        outState.setProgressTextColor(mProgressTextColor);
+        outState.setProgressTextSize(mProgressTextSize);
+        return outState;
+    }
+
+    /**
+     * Finish whatever the user is doing with the current item, e.g. from RecyclerView.Adapter.onViewRecycled:
+     * gestures, flings and rotary turns end (with onStopTrackingTouch), animations stop, and pending
+     * progress changes are dispatched to the current listener now. Nothing keeps running afterwards
+     */
+    public void unbind() {
+        boolean tracking = mEngine.isTouching() || mEngine.isFlinging() || mRotating;
+        if (mRotating && mRotaryScheduler.isScheduled()) {
+            // the last turn is not reported yet
+            mRotaryScheduler.cancel();
+            doRotaryFrame();
+        }
+        releaseInteraction();
+        mProgressFeed.discard();
+        mProgressDispatcher.flush();
+        if (tracking) {
+            trackTouchStop();
+        }
+    }
+
+    /**
+     * Switch to a low-power rendering for ambient mode: no anti-aliasing, the ring as an outline and no
+     * inner circle. Changes are only drawn on {@link #updateAmbient()}, which should be called from
+     * onUpdateAmbient()
+     * @param ambient
+     */
+    public void setAmbientMode(boolean ambient) {
+        if (ambient == mAmbient) {
+            skipRedraw();
+            return;
+        }
+        mAmbient = ambient;
+        if (ambient) {
+            // nothing moves in ambient
+            if (mProgressAnimator.isRunning()) {
+                mProgressAnimator.end();
+            }
+            if (mEngine.isFlinging()) {
+                mEngine.stopFling();
+                finishFling();
+            }
+            mAmbientRingState.enter(getMutableRingPaint(), getAmbientOutlineWidth());
+            mAmbientTextState.enter(getMutableProgressTextPaint(), 0);
+        } else {
+            mAmbientRingState.exit(mRingPaint);
+            mAmbientTextState.exit(mProgressTextPaint);
+            mBurnInStep = 0;
+            mAmbientRedrawPending = false;
+        }
+        invalidateProgressTextLayout();
+        invalidate();
+    }
+
+    public boolean isAmbientMode() {
+        return mAmbient;
+    }
+
+    /**
+     * Shift the drawing by a few pixels on every {@link #updateAmbient()}, for screens that need it
+     * (WearableActivity.EXTRA_BURN_IN_PROTECTION)
+     * @param enable
+     */
+    public void setBurnInProtection(boolean enable) {
+        mBurnInProtection = enable;
+    }
+
+    public boolean isBurnInProtectionEnabled() {
+        return mBurnInProtection;
+    }
+
+    /**
+     * Draw what changed since the last ambient update, once. Redraws in ambient mode are capped to
+     * the rate of this call
+     */
+    public void updateAmbient() {
+        if (!mAmbient) {
+            return;
+        }
+        if (mBurnInProtection) {
+            mBurnInStep = (mBurnInStep + 1) % (BURN_IN_OFFSETS.length / 2);
+        } else if (!mAmbientRedrawPending) {
+            skipRedraw();
+            return;
+        }
+        mAmbientRedrawPending = false;
+        invalidateProgressTextLayout();
+        invalidate();
+    }
+
+    /**
+     * Set the Paint used to draw the outer ring (touchable area).
+     * If the static layer cache is enabled, set it again after mutating it
      * @param paint
      */
     public void setRingPaint(@NonNull Paint paint) {
+        if (mAmbient) {
+            mAmbientRingState.exit(mRingPaint);
+            mAmbientRingState.enter(paint, getAmbientOutlineWidth());
+        }
         mRingPaint = paint;
-        invalidate();
+        mRingPaintShared = false;
+        invalidateStaticLayers();
+        invalidateAll();
     }
 
     /**
-     * Set the Paint used to draw the inner circle
+     * Set the Paint used to draw the inner circle.
+     * If the static layer cache is enabled, set it again after mutating it
      * @param paint
      */
     public void setInnerCirclePaint(@NonNull Paint paint) {
         mInnerCirclePaint = paint;
-        invalidate();
+        mInnerCirclePaintShared = false;
+        invalidateStaticLayers();
+        invalidateAll();
     }
 
     /**
@@ -478,8 +1433,14 @@ public class CircularSeekBar extends View {
      * @param paint
      */
     public void setProgressTextPaint(@NonNull Paint paint) {
+        if (mAmbient) {
+            mAmbientTextState.exit(mProgressTextPaint);
+            mAmbientTextState.enter(paint, 0);
+        }
         mProgressTextPaint = paint;
-        invalidate();
+        mProgressTextPaintShared = false;
+        invalidateProgressTextLayout();
+        invalidateAll();
     }
 
     /**
@@ -488,108 +1449,330 @@ public class CircularSeekBar extends View {
      *     <li>"###,###,###,##0.0" will display: 1,234.5</li>
      *     <li>"###,###,###,##0.00" will display: 1,234.56</li>
      * <ul/>
+     * Changes made to the format after it has been set are not picked up until it is set again
      * @param format
      */
     public void setProgressTextFormat(@NonNull NumberFormat format) {
         mProgressTextFormat = format;
-        invalidate();
+        mProgressTextFormatShared = false;
+        mProgressTextBuffer.setFormat(format);
+        if (mSnapToDisplayedPrecision) {
+            applyStepSize();
+        }
+        invalidateProgressTextLayout();
+        invalidateAll();
     }
 
     public NumberFormat getProgressTextFormat() {
+        if (mProgressTextFormatShared) {
+            // the caller may change it, which must not affect the other seek bars of the style
+            mProgressTextFormat = (NumberFormat) mProgressTextFormat.clone();
+            mProgressTextFormatShared = false;
+            mProgressTextBuffer.setFormat(mProgressTextFormat);
+        }
         return mProgressTextFormat;
     }
     //endregion
 
     //region Private draw
+    /**
+     * draw ring and inner circle from the cache, plus the indicator if needed
+     */
+    private void drawCachedLayers(Canvas c) {
+        float radius = mEngine.getOuterCircleRadius();
+        Canvas cacheCanvas = mStaticLayerCache.begin(mEngine.getCenterX() - radius,
+                mEngine.getCenterY() - radius, radius * 2);
+        if (cacheCanvas != null) {
+            drawWholeCircle(cacheCanvas);
+            if (mShowInnerCircle) {
+                drawInnerCircle(cacheCanvas);
+            }
+            mStaticLayerCache.end();
+        }
+        mStaticLayerCache.draw(c);
+
+        if (mShowIndicator && mEngine.isTouching()) {
+            // the indicator goes between ring and inner circle, so the inner circle is drawn again on top
+            drawProgressArc(c);
+            if (mShowInnerCircle) {
+                drawInnerCircle(c);
+            }
+        }
+    }
+
     private void drawWholeCircle(Canvas c) {
-        mRingPaint.setAlpha(mDimAlpha);
-        c.drawCircle(getWidth() / 2, getHeight() / 2, getOuterCircleRadius(), mRingPaint);
+        SeekBarRenderer.drawWholeCircle(c, mEngine, mRingPaint);
     }
 
     private void drawInnerCircle(Canvas c) {
-        c.drawCircle(getWidth() / 2, getHeight() / 2, getInnerCircleRadius(), mInnerCirclePaint);
+        SeekBarRenderer.drawInnerCircle(c, mEngine, mInnerCirclePaint);
     }
 
     private void drawProgressArc(Canvas c) {
-        mRingPaint.setAlpha(255);
-        c.drawArc(mViewBox, mTouchAngle - 105, 30, true, mRingPaint);
+        SeekBarRenderer.drawProgressArc(c, mViewBox, mEngine.getTouchAngle(), mRingPaint);
     }
 
     private void drawProgressText(Canvas c) {
-        if (mAngularVelocityTracker != null) {
-            c.drawText(mProgressTextFormat.format(mProgress),
-                    getWidth() / 2,
-                    getHeight() / 2 + mProgressTextPaint.descent(),
-                    mProgressTextPaint);
+        if (mProgressTextBuffer.update(mEngine.getProgress()) || !mProgressTextBoundsValid) {
+            layoutProgressText();
+            mProgressTextBoundsValid = true;
         }
+        SeekBarRenderer.drawProgressText(c, mEngine, mProgressTextBuffer.getChars(),
+                mProgressTextBuffer.getStart(), mProgressTextBuffer.getLength(), mProgressTextPaint);
+    }
+
+    /**
+     * outlines of the ring, shrunk so that burn-in shifts never clip them, and the text
+     */
+    private void drawAmbient(Canvas c) {
+        float shift = getBurnInShift();
+        int step = mBurnInProtection ? mBurnInStep : 0;
+        c.save();
+        c.translate(BURN_IN_OFFSETS[step * 2] * shift, BURN_IN_OFFSETS[step * 2 + 1] * shift);
+
+        float halfOutline = mRingPaint.getStrokeWidth() / 2;
+        mRingPaint.setAlpha(255);
+        c.drawCircle(mEngine.getCenterX(), mEngine.getCenterY(),
+                mEngine.getOuterCircleRadius() - shift - halfOutline, mRingPaint);
+        c.drawCircle(mEngine.getCenterX(), mEngine.getCenterY(), mEngine.getInnerCircleRadius(), mRingPaint);
+
+        if (mShowText) {
+            if (mProgressText != null) {
+                drawCustomText(c);
+            } else {
+                drawProgressText(c);
+            }
+        }
+        c.restore();
     }
 
     private void drawCustomText(Canvas c) {
-        c.drawText(mProgressText,
-                getWidth() / 2,
-                getHeight() / 2 + mProgressTextPaint.descent(),
-                mProgressTextPaint);
+        SeekBarRenderer.drawCustomText(c, mEngine, mProgressText, mProgressTextPaint);
     }
     //endregion
 
     //region Private
-    private void initViewBox() {
-        int width = getWidth();
-        int height = getHeight();
-        float diameter = getDiameter();
+    private float getEffectiveStepSize() {
+        if (!mSnapToDisplayedPrecision) {
+            return mStepSize;
+        }
+        return Math.max(mStepSize, ProgressTextBuffer.getDisplayedPrecision(mProgressTextFormat));
+    }
 
-        mViewBox.set(width / 2 - diameter / 2, height / 2 - diameter / 2, width / 2
-                + diameter / 2, height / 2 + diameter / 2);
+    private void applyStepSize() {
+        final float oldProgress = mEngine.getProgress();
+        mEngine.setStepSize(getEffectiveStepSize());
+        if (mEngine.getProgress() != oldProgress) {
+            mProgressDispatcher.onProgressChanged(mEngine.getProgress(), SOURCE_PROGRAM);
+            invalidateChanges(oldProgress, mEngine.isTouching(), mEngine.getTouchAngle());
+        }
     }
 
     /**
-     * update display with the given touch position
-     *
-     * @param x
-     * @param y
+     * Invalidate only what changed since the given state: the old and new indicator wedge, and the old
+     * and new progress text. Nothing is invalidated if none of them changed
      */
-    private void updateProgress(float x, float y, float speed) {
-        // calculate the touch-angle
-        mTouchAngle = getAngle(x, y);
+    private void invalidateChanges(float oldProgress, boolean wasTouching, float oldTouchAngle) {
+        if (deferAmbientRedraw()) {
+            return;
+        }
+        final boolean touching = mEngine.isTouching();
+        final float touchAngle = mEngine.getTouchAngle();
+        mDirtyRect.setEmpty();
+
+        if (mShowIndicator) {
+            boolean moved = touchAngle != oldTouchAngle;
+            if (wasTouching && (!touching || moved)) {
+                unionIndicatorBounds(mDirtyRect, oldTouchAngle);
+            }
+            if (touching && (!wasTouching || moved)) {
+                unionIndicatorBounds(mDirtyRect, touchAngle);
+            }
+        }
+
+        if (mShowText && mProgressText == null && oldProgress != mEngine.getProgress()) {
+            if (!mProgressTextBoundsValid) {
+                // never drawn since it was last styled: no idea where the old text was
+                invalidate();
+                if (mMetrics != null) {
+                    mMetrics.recordFrameRequest();
+                }
+                return;
+            }
+            mDirtyRect.union(mProgressTextBounds);
+            mProgressTextBuffer.update(mEngine.getProgress());
+            layoutProgressText();
+            mDirtyRect.union(mProgressTextBounds);
+        }
 
-        // calculate the new value depending on angle
-        float newVal = mProgress + mMaxValue / 100 * speed * mSpeedMultiplier;
-        newVal = Math.min(newVal, mMaxValue);
-        newVal = Math.max(newVal, mMinValue);
-        mProgress = newVal;
+        if (mDirtyRect.isEmpty()) {
+            skipRedraw();
+        } else {
+            mPartialRedrawCount++;
+            if (mMetrics != null) {
+                mMetrics.recordPartialRedraw();
+            }
+            invalidate(mDirtyRect.left, mDirtyRect.top, mDirtyRect.right, mDirtyRect.bottom);
+        }
     }
 
-    private float getDiameter() {
-        return Math.min(getWidth(), getHeight());
+    /**
+     * Redraw the whole view, or in ambient mode on the next {@link #updateAmbient()}
+     */
+    private void invalidateAll() {
+        if (!deferAmbientRedraw()) {
+            invalidate();
+        }
     }
 
-    private float getOuterCircleRadius() {
-        return getDiameter() / 2f;
+    /**
+     * In ambient mode, redraws wait for the next ambient update
+     * @return true if the redraw was deferred
+     */
+    private boolean deferAmbientRedraw() {
+        if (!mAmbient) {
+            return false;
+        }
+        mAmbientRedrawPending = true;
+        skipRedraw();
+        return true;
     }
 
-    private float getInnerCircleRadius() {
-        return getOuterCircleRadius() * (1 - mRingWidthFactor);
+    private void skipRedraw() {
+        mSkippedRedrawCount++;
+        if (mMetrics != null) {
+            mMetrics.recordSkippedRedraw();
+        }
     }
 
-    private PointF getCenter() {
-        return new PointF(getWidth() / 2, getHeight() / 2);
+    private void reportMetrics() {
+        if (mMetrics != null && mMetricsSink != null) {
+            mMetrics.snapshot(mMetricsSnapshot);
+            mMetrics.reset();
+            mMetricsSink.onMetrics(this, mMetricsSnapshot);
+        }
     }
 
     /**
-     * return angle relative to the view center for the given point on the chart in degrees.
-     *
-     * @param x
-     * @param y
-     * @return angle in degrees. 0° is NORTH
+     * Add the bounds of the indicator wedge drawn for the given touch angle
+     */
+    private void unionIndicatorBounds(Rect out, float touchAngle) {
+        final float cx = mEngine.getCenterX();
+        final float cy = mEngine.getCenterY();
+        final float r = mEngine.getOuterCircleRadius();
+        // same arc as drawProgressArc: 0 degrees is EAST for drawArc
+        final float start = touchAngle + SeekBarRenderer.INDICATOR_START_OFFSET;
+        final float sweep = SeekBarRenderer.INDICATOR_SWEEP;
+
+        // the wedge spans the center and both ends of the arc...
+        final RectF bounds = mIndicatorBounds;
+        bounds.set(cx, cy, cx, cy);
+        double startRad = Math.toRadians(start);
+        double endRad = Math.toRadians(start + sweep);
+        bounds.union(cx + r * (float) Math.cos(startRad), cy + r * (float) Math.sin(startRad));
+        bounds.union(cx + r * (float) Math.cos(endRad), cy + r * (float) Math.sin(endRad));
+        // ...and reaches further where the arc crosses an axis
+        for (int axis = (int) Math.ceil(start / 90) * 90; axis <= start + sweep; axis += 90) {
+            switch (((axis % 360) + 360) % 360) {
+                case 0:
+                    bounds.right = cx + r;
+                    break;
+                case 90:
+                    bounds.bottom = cy + r;
+                    break;
+                case 180:
+                    bounds.left = cx - r;
+                    break;
+                case 270:
+                    bounds.top = cy - r;
+                    break;
+            }
+        }
+
+        // room for anti-aliasing
+        out.union((int) Math.floor(bounds.left) - 2, (int) Math.floor(bounds.top) - 2,
+                (int) Math.ceil(bounds.right) + 2, (int) Math.ceil(bounds.bottom) + 2);
+    }
+
+    /**
+     * Fit the text currently held by the progress text buffer, if enabled, and measure its bounds
+     */
+    private void layoutProgressText() {
+        if (mProgressTextAutoFit) {
+            float size = mProgressTextFitter.getFitSize(mProgressTextPaint, mProgressTextBuffer.getChars(),
+                    mProgressTextBuffer.getStart(), mProgressTextBuffer.getLength(),
+                    mEngine.getInnerCircleRadius() * 2, mProgressTextSize);
+            if (size != mProgressTextPaint.getTextSize()) {
+                getMutableProgressTextPaint().setTextSize(size);
+            }
+        }
+        measureProgressText(mProgressTextBounds);
+    }
+
+    /**
+     * Bounds of the text currently held by the progress text buffer, as drawn by drawProgressText
      */
-    private @FloatRange(from=0,to=360) float getAngle(float x, float y) {
-        PointF c = getCenter();
-        return (float) -Math.toDegrees(Math.atan2(c.x - x, c.y - y));
+    private void measureProgressText(Rect out) {
+        final Paint paint = mProgressTextPaint;
+        float width = mProgressTextFitter.measure(paint, mProgressTextBuffer.getChars(),
+                mProgressTextBuffer.getStart(), mProgressTextBuffer.getLength());
+        float x = mEngine.getCenterX();
+        float baseline = mEngine.getCenterY() + paint.descent();
+        float left;
+        switch (paint.getTextAlign()) {
+            case LEFT:
+                left = x;
+                break;
+            case RIGHT:
+                left = x - width;
+                break;
+            case CENTER:
+            default:
+                left = x - width / 2;
+                break;
+        }
+        // room for stroke and anti-aliasing
+        float pad = paint.getStrokeWidth() + 2;
+        out.set((int) Math.floor(left - pad), (int) Math.floor(baseline + paint.ascent() - pad),
+                (int) Math.ceil(left + width + pad), (int) Math.ceil(baseline + paint.descent() + pad));
     }
 
-    private float distanceToCenter(float x, float y) {
-        PointF c = getCenter();
-        return (float) Math.sqrt(Math.pow(x - c.x, 2.0) + Math.pow(y - c.y, 2.0));
+    private void invalidateProgressTextLayout() {
+        mProgressTextBoundsValid = false;
+        mProgressTextFitter.invalidate();
+    }
+
+    private void invalidateStaticLayers() {
+        if (mStaticLayerCache != null) {
+            mStaticLayerCache.invalidate();
+        }
+    }
+
+    private void registerTrimMemoryCallbacks() {
+        if (mStaticLayerCache != null && mTrimMemoryCallbacks == null
+                && Build.VERSION.SDK_INT >= Build.VERSION_CODES.ICE_CREAM_SANDWICH) {
+            mTrimMemoryCallbacks = new TrimMemoryCallbacks(mStaticLayerCache, this);
+            getContext().getApplicationContext().registerComponentCallbacks(mTrimMemoryCallbacks);
+        }
+    }
+
+    private void unregisterTrimMemoryCallbacks() {
+        if (mTrimMemoryCallbacks != null && Build.VERSION.SDK_INT >= Build.VERSION_CODES.ICE_CREAM_SANDWICH) {
+            getContext().getApplicationContext().unregisterComponentCallbacks(mTrimMemoryCallbacks);
+        }
+        mTrimMemoryCallbacks = null;
+    }
+
+    private float getAmbientOutlineWidth() {
+        return Math.max(1, Utils.convertDpToPixel(getResources(), AMBIENT_OUTLINE_DP));
+    }
+
+    private float getBurnInShift() {
+        return mBurnInProtection ? Utils.convertDpToPixel(getResources(), BURN_IN_SHIFT_DP) : 0;
+    }
+
+    private void initViewBox() {
+        SeekBarRenderer.setViewBox(mViewBox, mEngine);
     }
     //endregion
 }
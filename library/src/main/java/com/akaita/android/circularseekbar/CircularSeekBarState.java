@@ -0,0 +1,140 @@
+package com.akaita.android.circularseekbar;
+
+import android.support.annotation.ColorInt;
+import android.support.annotation.FloatRange;
+import android.support.annotation.Nullable;
+
+/**
+ * Snapshot of what changes between the items of a list of seek bars, applied all at once by
+ * {@link CircularSeekBar#bind(CircularSeekBarState)}.
+ * Start from {@link CircularSeekBar#getState(CircularSeekBarState)} and change what differs per item;
+ * a single instance can be reused for every bind.
+ */
+public final class CircularSeekBarState {
+    private float mMin;
+    private float mMax;
+    private float mProgress;
+    private float mStepSize;
+    private boolean mEnabled;
+    private boolean mShowIndicator;
+    private boolean mShowProgressText;
+    private @Nullable String mProgressText;
+    private boolean mShowInnerCircle;
+    private float mRingWidthFactor;
+    private @ColorInt int mRingColor;
+    private @ColorInt int mInnerCircleColor;
+    private @ColorInt int mProgressTextColor;
+    private float mProgressTextSize;
+
+    public float getMin() {
+        return mMin;
+    }
+
+    public void setMin(float min) {
+        mMin = min;
+    }
+
+    public float getMax() {
+        return mMax;
+    }
+
+    public void setMax(float max) {
+        mMax = max;
+    }
+
+    public float getProgress() {
+        return mProgress;
+    }
+
+    public void setProgress(float progress) {
+        mProgress = progress;
+    }
+
+    public float getStepSize() {
+        return mStepSize;
+    }
+
+    public void setStepSize(@FloatRange(from=0) float stepSize) {
+        mStepSize = stepSize;
+    }
+
+    public boolean isEnabled() {
+        return mEnabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        mEnabled = enabled;
+    }
+
+    public boolean isIndicatorEnabled() {
+        return mShowIndicator;
+    }
+
+    public void setIndicator(boolean enabled) {
+        mShowIndicator = enabled;
+    }
+
+    public boolean isProgressTextEnabled() {
+        return mShowProgressText;
+    }
+
+    public void setProgressText(boolean enabled) {
+        mShowProgressText = enabled;
+    }
+
+    public @Nullable String getProgressText() {
+        return mProgressText;
+    }
+
+    public void setProgressText(@Nullable String text) {
+        mProgressText = text;
+    }
+
+    public boolean isInnerCircleEnabled() {
+        return mShowInnerCircle;
+    }
+
+    public void setInnerCircle(boolean enabled) {
+        mShowInnerCircle = enabled;
+    }
+
+    public float getRingWidthFactor() {
+        return mRingWidthFactor;
+    }
+
+    public void setRingWidthFactor(@FloatRange(from=0f,to=1f) float factor) {
+        mRingWidthFactor = factor;
+    }
+
+    public @ColorInt int getRingColor() {
+        return mRingColor;
+    }
+
+    public void setRingColor(@ColorInt int color) {
+        mRingColor = color;
+    }
+
+    public @ColorInt int getInnerCircleColor() {
+        return mInnerCircleColor;
+    }
+
+    public void setInnerCircleColor(@ColorInt int color) {
+        mInnerCircleColor = color;
+    }
+
+    public @ColorInt int getProgressTextColor() {
+        return mProgressTextColor;
+    }
+
+    public void setProgressTextColor(@ColorInt int color) {
+        mProgressTextColor = color;
+    }
+
+    public float getProgressTextSize() {
+        return mProgressTextSize;
+    }
+
+    public void setProgressTextSize(@FloatRange(from=0) float pixels) {
+        mProgressTextSize = pixels;
+    }
+}
@@ -0,0 +1,197 @@
+package com.akaita.android.circularseekbar;
+
+import android.content.Context;
+import android.content.res.Resources;
+import android.content.res.TypedArray;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.annotation.StyleRes;
+import android.util.AttributeSet;
+import android.util.SparseArray;
+
+import com.akaita.android.circularseekbar.core.AccelerationCurve;
+import com.akaita.android.circularseekbar.core.ValueScale;
+
+import java.text.DecimalFormat;
+import java.text.NumberFormat;
+import java.util.WeakHashMap;
+
+/**
+ * Immutable set of CircularSeekBar attributes, resolved once per theme and style resource and shared by
+ * every seek bar using them, together with their Paints and text format.
+ * Seek bars copy the shared objects before changing them, so their setters keep working per instance.
+ */
+public final class CircularSeekBarStyle {
+
+    private static final float DEFAULT_VALUE_SCALE_CURVATURE = 4f;
+
+    // styles resolved per theme, by style resource (0 for none)
+    private static final WeakHashMap<Resources.Theme, SparseArray<CircularSeekBarStyle>> sCache = new WeakHashMap<>();
+
+    final boolean mEnabled;
+    final boolean mShowIndicator;
+    final float mMin;
+    final float mMax;
+    final float mSpeedMultiplier;
+    final AccelerationCurve mAccelerationCurve;
+    final int mVelocityStrategy;
+    final ValueScale mValueScale;
+    final float mStepSize;
+    final boolean mSnapToDisplayedPrecision;
+    final float mProgress;
+    final boolean mShowText;
+    final float mRingWidthFactor;
+    final @Nullable String mProgressText;
+    final boolean mShowInnerCircle;
+    final int mRingColor;
+    final int mInnerCircleColor;
+    final int mProgressTextColor;
+    final float mProgressTextSize;
+    final boolean mProgressTextAutoFit;
+    final boolean mCacheStaticLayers;
+    final int mDispatchMode;
+    final int mDispatchInterval;
+    final boolean mFling;
+    final float mFlingFriction;
+    final float mRotaryDegreesPerUnit;
+
+    // shared, never to be mutated
+    final Paint mRingPaint;
+    final Paint mInnerCirclePaint;
+    final Paint mProgressTextPaint;
+    final NumberFormat mProgressTextFormat;
+
+    private CircularSeekBarStyle(Resources resources, TypedArray a) {
+        mEnabled = a.getBoolean(R.styleable.CircularSeekBar_enabled, true);
+        mShowIndicator = a.getBoolean(R.styleable.CircularSeekBar_showIndicator, true);
+        mMin = a.getFloat(R.styleable.CircularSeekBar_min, 0f);
+        mMax = a.getFloat(R.styleable.CircularSeekBar_max, 100f);
+        mSpeedMultiplier = a.getFloat(R.styleable.CircularSeekBar_speedMultiplier, 1f);
+        mAccelerationCurve = getAccelerationCurve(a.getInt(R.styleable.CircularSeekBar_accelerationCurve, 0));
+        mVelocityStrategy = a.getInt(R.styleable.CircularSeekBar_velocityStrategy, CircularSeekBar.VELOCITY_STRATEGY_LEAST_SQUARES);
+        mValueScale = getValueScale(a.getInt(R.styleable.CircularSeekBar_valueScale, 0),
+                a.getFloat(R.styleable.CircularSeekBar_valueScaleCurvature, DEFAULT_VALUE_SCALE_CURVATURE));
+        mStepSize = a.getFloat(R.styleable.CircularSeekBar_stepSize, 0f);
+        mSnapToDisplayedPrecision = a.getBoolean(R.styleable.CircularSeekBar_snapToDisplayedPrecision, false);
+        mProgress = a.getFloat(R.styleable.CircularSeekBar_progress, 0f);
+        mShowText = a.getBoolean(R.styleable.CircularSeekBar_showProgressText, true);
+        mRingWidthFactor = a.getFloat(R.styleable.CircularSeekBar_ringWidth, 0.5f);
+        mProgressText = a.getString(R.styleable.CircularSeekBar_progressText);
+        mShowInnerCircle = a.getBoolean(R.styleable.CircularSeekBar_showInnerCircle, true);
+        mRingColor = a.getColor(R.styleable.CircularSeekBar_ringColor, Color.rgb(192, 255, 140)); //LIGHT LIME
+        mInnerCircleColor = a.getColor(R.styleable.CircularSeekBar_innerCircleColor, Color.WHITE);
+        mProgressTextColor = a.getColor(R.styleable.CircularSeekBar_progressTextColor, Color.BLACK);
+        mProgressTextSize = Utils.convertDpToPixel(resources, a.getFloat(R.styleable.CircularSeekBar_progressTextSize,
+                Utils.convertDpToPixel(resources, 24f)));
+        mProgressTextAutoFit = a.getBoolean(R.styleable.CircularSeekBar_autoFitProgressText, false);
+        mCacheStaticLayers = a.getBoolean(R.styleable.CircularSeekBar_cacheStaticLayers, false);
+        mDispatchMode = a.getInt(R.styleable.CircularSeekBar_dispatchMode, CircularSeekBar.DISPATCH_IMMEDIATE);
+        mDispatchInterval = a.getInt(R.styleable.CircularSeekBar_dispatchInterval, 100);
+        mFling = a.getBoolean(R.styleable.CircularSeekBar_fling, false);
+        mFlingFriction = a.getFloat(R.styleable.CircularSeekBar_flingFriction, 3f);
+        mRotaryDegreesPerUnit = a.getFloat(R.styleable.CircularSeekBar_rotaryDegreesPerUnit, 15f);
+
+        mRingPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        mRingPaint.setStyle(Paint.Style.FILL);
+        mRingPaint.setColor(mRingColor);
+
+        mInnerCirclePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        mInnerCirclePaint.setStyle(Paint.Style.FILL);
+        mInnerCirclePaint.setColor(mInnerCircleColor);
+
+        mProgressTextPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        mProgressTextPaint.setStyle(Paint.Style.STROKE);
+        mProgressTextPaint.setTextAlign(Paint.Align.CENTER);
+        mProgressTextPaint.setColor(mProgressTextColor);
+        mProgressTextPaint.setTextSize(mProgressTextSize);
+
+        mProgressTextFormat = new DecimalFormat("###,###,###,##0.0");
+    }
+
+    /**
+     * Resolve a style resource against the theme of the context. Cached, so that seek bars created
+     * programmatically with the same style share it
+     * @param context
+     * @param styleRes style with CircularSeekBar attributes, or 0 for the defaults
+     */
+    public static @NonNull CircularSeekBarStyle obtain(@NonNull Context context, @StyleRes int styleRes) {
+        final Resources.Theme theme = context.getTheme();
+        synchronized (sCache) {
+            SparseArray<CircularSeekBarStyle> styles = sCache.get(theme);
+            if (styles == null) {
+                styles = new SparseArray<>();
+                sCache.put(theme, styles);
+            }
+            CircularSeekBarStyle style = styles.get(styleRes);
+            if (style == null) {
+                style = resolve(context, null, styleRes);
+                styles.put(styleRes, style);
+            }
+            return style;
+        }
+    }
+
+    /**
+     * Style of an inflated seek bar. Only cached when the layout sets no CircularSeekBar attribute
+     * directly, but through a style or not at all
+     */
+    static @NonNull CircularSeekBarStyle obtain(@NonNull Context context, @Nullable AttributeSet attrs) {
+        if (attrs == null) {
+            return obtain(context, 0);
+        }
+        if (!hasInlineAttributes(attrs)) {
+            return obtain(context, attrs.getStyleAttribute());
+        }
+        return resolve(context, attrs, 0);
+    }
+
+    private static CircularSeekBarStyle resolve(Context context, @Nullable AttributeSet attrs, @StyleRes int styleRes) {
+        TypedArray a = context.getTheme().obtainStyledAttributes(
+                attrs,
+                R.styleable.CircularSeekBar,
+                0,
+                styleRes);
+        try {
+            return new CircularSeekBarStyle(context.getResources(), a);
+        } finally {
+            a.recycle();
+        }
+    }
+
+    private static boolean hasInlineAttributes(AttributeSet attrs) {
+        final int[] styleable = R.styleable.CircularSeekBar;
+        for (int i = 0; i < attrs.getAttributeCount(); i++) {
+            int attr = attrs.getAttributeNameResource(i);
+            for (int candidate : styleable) {
+                if (attr == candidate) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static AccelerationCurve getAccelerationCurve(int attrValue) {
+        switch (attrValue) {
+            case 1:
+                return AccelerationCurve.precision();
+            case 2:
+                return AccelerationCurve.fast();
+            default:
+                return AccelerationCurve.linear();
+        }
+    }
+
+    private static ValueScale getValueScale(int attrValue, float curvature) {
+        switch (attrValue) {
+            case 1:
+                return ValueScale.logarithmic();
+            case 2:
+                return ValueScale.exponential(curvature);
+            default:
+                return ValueScale.linear();
+        }
+    }
+}
@@ -0,0 +1,493 @@
+package com.akaita.android.circularseekbar;
+
+import android.annotation.TargetApi;
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.PorterDuff;
+import android.graphics.RectF;
+import android.graphics.SurfaceTexture;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.util.AttributeSet;
+import android.view.MotionEvent;
+import android.view.Surface;
+import android.view.TextureView;
+
+import com.akaita.android.circularseekbar.core.ProgressTextBuffer;
+import com.akaita.android.circularseekbar.core.SeekBarEngine;
+import com.akaita.android.circularseekbar.core.TouchSampleQueue;
+import com.akaita.android.circularseekbar.core.TrackingEventQueue;
+
+import java.text.NumberFormat;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * CircularSeekBar drawn off the UI thread, for screens whose UI thread is too busy to redraw a dragged
+ * ring on every frame. Needs API 14 and a hardware accelerated window.
+ * <p>
+ * The UI thread only hands touches to the render thread, through a lock-free {@link TouchSampleQueue}.
+ * The render thread, shared by all surfaces, runs its own {@link SeekBarEngine} and draws once per display
+ * frame into the back buffer of the Surface while the front one is shown. Drawing is the same code as
+ * {@link CircularSeekBar}'s. Listener calls are posted back to the UI thread through a
+ * {@link TrackingEventQueue}, in the order they happened, with at most one progress change per frame between
+ * two tracking calls.
+ * <p>
+ * Configured from a {@link CircularSeekBarStyle}, like {@link CircularSeekBar}, but fixed once created.
+ * cacheStaticLayers, dispatchMode and rotaryDegreesPerUnit do not apply.
+ */
+@TargetApi(Build.VERSION_CODES.ICE_CREAM_SANDWICH)
+public class CircularSeekBarSurface extends TextureView implements TextureView.SurfaceTextureListener {
+
+    /**
+     * Listen for touch-events on the ring area. Called on the UI thread
+     */
+    public interface OnCircularSeekBarChangeListener {
+        void onProgressChanged(CircularSeekBarSurface seekBar, float progress, boolean fromUser);
+
+        void onStartTrackingTouch(CircularSeekBarSurface seekBar);
+
+        void onStopTrackingTouch(CircularSeekBarSurface seekBar);
+    }
+
+    // a few frames of a batching digitizer
+    private static final int TOUCH_QUEUE_CAPACITY = 256;
+    // many frames of quick gestures while the UI thread is stalled
+    private static final int TRACKING_QUEUE_CAPACITY = 64;
+    // a NaN bit pattern never produced by Float.floatToIntBits, as in ProgressFeed
+    private static final int NO_PROGRESS = 0x7fc00001;
+
+    private CircularSeekBarStyle mStyle;
+    private @Nullable OnCircularSeekBarChangeListener mOnCircularSeekBarChangeListener = null;
+    private Renderer mRenderer;
+    private Handler mRenderHandler;
+    private final Handler mMainHandler = new Handler(Looper.getMainLooper());
+
+    // UI thread to render thread
+    private final TouchSampleQueue mTouchQueue = new TouchSampleQueue(TOUCH_QUEUE_CAPACITY);
+    private final AtomicInteger mPendingProgress = new AtomicInteger(NO_PROGRESS);
+    private final AtomicBoolean mRenderRequested = new AtomicBoolean();
+    private final Object mSurfaceLock = new Object();
+    // guarded by mSurfaceLock
+    private @Nullable Surface mSurface = null;
+    private int mSurfaceWidth;
+    private int mSurfaceHeight;
+    private boolean mSurfaceSizeChanged = false;
+
+    // render thread to UI thread
+    private volatile float mRenderedProgress;
+    private TrackingEventQueue mTrackingEvents;
+    private final AtomicBoolean mDispatchPosted = new AtomicBoolean();
+
+    private final Runnable mDispatch = new Runnable() {
+        @Override
+        public void run() {
+            dispatch();
+        }
+    };
+
+    //region Constructor
+    public CircularSeekBarSurface(Context context) {
+        super(context);
+        init(CircularSeekBarStyle.obtain(context, 0));
+    }
+
+    public CircularSeekBarSurface(Context context, @Nullable AttributeSet attrs) {
+        super(context, attrs);
+        init(CircularSeekBarStyle.obtain(context, attrs));
+    }
+
+    public CircularSeekBarSurface(Context context, @Nullable AttributeSet attrs, int defStyleAttr) {
+        super(context, attrs, defStyleAttr);
+        init(CircularSeekBarStyle.obtain(context, attrs));
+    }
+
+    /**
+     * @param context
+     * @param style see {@link CircularSeekBarStyle#obtain}
+     */
+    public CircularSeekBarSurface(Context context, @NonNull CircularSeekBarStyle style) {
+        super(context);
+        init(style);
+    }
+    //endregion
+
+    private void init(CircularSeekBarStyle style) {
+        mStyle = style;
+        mRenderer = new Renderer(style);
+        mRenderedProgress = mRenderer.mEngine.getProgress();
+        mTrackingEvents = new TrackingEventQueue(TRACKING_QUEUE_CAPACITY, mRenderedProgress);
+        mRenderHandler = SeekBarRenderThread.getHandler();
+        setEnabled(style.mEnabled);
+        setOpaque(false);
+        setSurfaceTextureListener(this);
+    }
+
+    //region Lifecycle
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        // range and ring width never change after construction, so the engine can be read from here
+        final int diameter = SeekBarRenderer.getIntrinsicDiameter(getResources(), mRenderer.mEngine, mStyle.mShowText,
+                mStyle.mProgressText, mStyle.mProgressTextPaint, mStyle.mProgressTextFormat);
+        setMeasuredDimension(resolveSize(diameter, widthMeasureSpec), resolveSize(diameter, heightMeasureSpec));
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        mRenderHandler.post(mRenderer.mRelease);
+    }
+
+    @Override
+    public void onSurfaceTextureAvailable(SurfaceTexture surfaceTexture, int width, int height) {
+        synchronized (mSurfaceLock) {
+            mSurface = new Surface(surfaceTexture);
+            mSurfaceWidth = width;
+            mSurfaceHeight = height;
+            mSurfaceSizeChanged = true;
+        }
+        requestRender();
+    }
+
+    @Override
+    public void onSurfaceTextureSizeChanged(SurfaceTexture surfaceTexture, int width, int height) {
+        synchronized (mSurfaceLock) {
+            mSurfaceWidth = width;
+            mSurfaceHeight = height;
+            mSurfaceSizeChanged = true;
+        }
+        requestRender();
+    }
+
+    @Override
+    public boolean onSurfaceTextureDestroyed(SurfaceTexture surfaceTexture) {
+        // waits for a frame being drawn, if any
+        synchronized (mSurfaceLock) {
+            if (mSurface != null) {
+                mSurface.release();
+                mSurface = null;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void onSurfaceTextureUpdated(SurfaceTexture surfaceTexture) {
+    }
+    //endregion
+
+    //region Touches
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        if (!isEnabled()) {
+            return super.onTouchEvent(event);
+        }
+        int action = event.getAction();
+        if (action == MotionEvent.ACTION_MOVE) {
+            // high-rate digitizers batch several samples into a single event
+            final int historySize = event.getHistorySize();
+            for (int h = 0; h < historySize; h++) {
+                mTouchQueue.offer(TouchSampleQueue.ACTION_HISTORICAL, event.getHistoricalX(h), event.getHistoricalY(h),
+                        event.getHistoricalEventTime(h));
+            }
+        }
+        mTouchQueue.offer(action, event.getX(), event.getY(), event.getEventTime());
+        requestRender();
+        return true;
+    }
+
+    /**
+     * @return number of touch samples dropped because the render thread fell behind by more than the queue holds
+     */
+    public long getDroppedTouchCount() {
+        return mTouchQueue.getDroppedCount();
+    }
+    //endregion
+
+    //region Public listener
+    public void setOnCircularSeekBarChangeListener(@Nullable OnCircularSeekBarChangeListener listener) {
+        mOnCircularSeekBarChangeListener = listener;
+    }
+    //endregion
+
+    //region Public attribute
+    /**
+     * Set the progress from any thread. It is applied on the next frame, unless the user is dragging or
+     * flinging the ring at that point: the user wins
+     * @param progress
+     */
+    public void setProgress(float progress) {
+        if (Float.isNaN(progress)) {
+            return;
+        }
+        mPendingProgress.set(Float.floatToIntBits(progress));
+        requestRender();
+    }
+
+    /**
+     * @return the progress last drawn, or the one set by {@link #setProgress(float)} if not drawn yet
+     */
+    public float getProgress() {
+        int pending = mPendingProgress.get();
+        return pending != NO_PROGRESS ? Float.intBitsToFloat(pending) : mRenderedProgress;
+    }
+
+    public float getMin() {
+        return mStyle.mMin;
+    }
+
+    public float getMax() {
+        return mStyle.mMax;
+    }
+
+    public @NonNull CircularSeekBarStyle getStyle() {
+        return mStyle;
+    }
+    //endregion
+
+    //region Private
+    /**
+     * Wake the render thread up for a frame. Safe from any thread; requests collapse until the render thread
+     * takes them
+     */
+    private void requestRender() {
+        if (mRenderRequested.compareAndSet(false, true)) {
+            mRenderHandler.post(mRenderer);
+        }
+    }
+
+    /**
+     * Render thread
+     */
+    private void postDispatch() {
+        if (mDispatchPosted.compareAndSet(false, true)) {
+            mMainHandler.post(mDispatch);
+        }
+    }
+
+    /**
+     * UI thread
+     */
+    private void dispatch() {
+        // events queued from now on get a new dispatch
+        mDispatchPosted.set(false);
+        while (mTrackingEvents.poll()) {
+            final OnCircularSeekBarChangeListener listener = mOnCircularSeekBarChangeListener;
+            if (listener == null) {
+                continue;
+            }
+            switch (mTrackingEvents.getEvent()) {
+                case TrackingEventQueue.EVENT_START:
+                    listener.onStartTrackingTouch(this);
+                    break;
+                case TrackingEventQueue.EVENT_PROGRESS:
+                    listener.onProgressChanged(this, mTrackingEvents.getProgress(), mTrackingEvents.isFromUser());
+                    break;
+                case TrackingEventQueue.EVENT_STOP:
+                    listener.onStopTrackingTouch(this);
+                    break;
+            }
+        }
+    }
+    //endregion
+
+    /**
+     * Gesture state and drawing. Only used on the render thread once constructed
+     */
+    private class Renderer implements Runnable, FrameScheduler.Callback {
+        final SeekBarEngine mEngine;
+        private final Paint mRingPaint;
+        private final Paint mInnerCirclePaint;
+        private final Paint mProgressTextPaint;
+        private final ProgressTextBuffer mProgressTextBuffer;
+        private final ProgressTextFitter mProgressTextFitter = new ProgressTextFitter();
+        private final RectF mViewBox = new RectF();
+        private @Nullable FrameScheduler mFrameScheduler = null;
+        private long mLastFlingFrameNanos = -1;
+
+        final Runnable mRelease = new Runnable() {
+            @Override
+            public void run() {
+                release();
+            }
+        };
+
+        Renderer(CircularSeekBarStyle style) {
+            mEngine = new SeekBarEngine(style.mVelocityStrategy);
+            mEngine.setMin(style.mMin);
+            mEngine.setMax(style.mMax);
+            mEngine.setSpeedMultiplier(style.mSpeedMultiplier);
+            mEngine.setAccelerationCurve(style.mAccelerationCurve);
+            mEngine.setValueScale(style.mValueScale);
+            mEngine.setRingWidthFactor(style.mRingWidthFactor);
+            mEngine.setFlingFriction(style.mFlingFriction);
+
+            // the style's Paints and format are used by seek bars on the UI thread, so this thread gets copies
+            mRingPaint = new Paint(style.mRingPaint);
+            mInnerCirclePaint = new Paint(style.mInnerCirclePaint);
+            mProgressTextPaint = new Paint(style.mProgressTextPaint);
+            NumberFormat format = (NumberFormat) style.mProgressTextFormat.clone();
+            mProgressTextBuffer = new ProgressTextBuffer(format);
+
+            float stepSize = style.mStepSize;
+            if (style.mSnapToDisplayedPrecision) {
+                stepSize = Math.max(stepSize, ProgressTextBuffer.getDisplayedPrecision(format));
+            }
+            mEngine.setStepSize(stepSize);
+            mEngine.setProgress(style.mProgress);
+        }
+
+        /**
+         * Frame request, posted by requestRender
+         */
+        @Override
+        public void run() {
+            mRenderRequested.set(false);
+            if (mFrameScheduler == null) {
+                mFrameScheduler = FrameScheduler.createForCurrentThread(this);
+            }
+            mFrameScheduler.schedule();
+        }
+
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            while (mTouchQueue.poll()) {
+                onTouchSample(mTouchQueue.getAction(), mTouchQueue.getX(), mTouchQueue.getY(),
+                        mTouchQueue.getEventTime());
+            }
+            if (mEngine.isFlinging()) {
+                stepFling(frameTimeNanos);
+            }
+            mTrackingEvents.setProgress(mEngine.getProgress(), true);
+
+            final int pending = mPendingProgress.getAndSet(NO_PROGRESS);
+            if (pending != NO_PROGRESS && !mEngine.isTouching() && !mEngine.isFlinging()) {
+                mEngine.setProgress(Float.intBitsToFloat(pending));
+                mTrackingEvents.setProgress(mEngine.getProgress(), false);
+            }
+
+            mRenderedProgress = mEngine.getProgress();
+            mTrackingEvents.flush();
+            if (mTrackingEvents.size() > 0) {
+                postDispatch();
+            }
+
+            draw();
+
+            if (mEngine.isFlinging()) {
+                mFrameScheduler.schedule();
+            }
+        }
+
+        private void onTouchSample(int action, float x, float y, long eventTime) {
+            if (action == TouchSampleQueue.ACTION_HISTORICAL) {
+                mEngine.addHistoricalSample(x, y, eventTime);
+                return;
+            }
+            if (action == SeekBarEngine.ACTION_DOWN) {
+                if (mEngine.isFlinging()) {
+                    // catch the fling, and close its tracking before a new one starts
+                    mEngine.stopFling();
+                    trackTouchStop();
+                }
+                // changes so far belong before the start, the jump to the finger after it
+                mTrackingEvents.setProgress(mEngine.getProgress(), true);
+            }
+            switch (mEngine.onTouch(action, x, y, eventTime)) {
+                case SeekBarEngine.RESULT_START:
+                    mTrackingEvents.offerStart();
+                    break;
+                case SeekBarEngine.RESULT_STOP:
+                    if (mStyle.mFling && mEngine.startFling()) {
+                        // tracking stops when the fling does
+                        mLastFlingFrameNanos = -1;
+                    } else {
+                        trackTouchStop();
+                    }
+                    break;
+            }
+        }
+
+        private void stepFling(long frameTimeNanos) {
+            float dtMillis = mLastFlingFrameNanos < 0
+                    ? FrameScheduler.FALLBACK_FRAME_MS
+                    : (frameTimeNanos - mLastFlingFrameNanos) / 1000000f;
+            mLastFlingFrameNanos = frameTimeNanos;
+            if (!mEngine.stepFling(dtMillis)) {
+                trackTouchStop();
+            }
+        }
+
+        /**
+         * Queue a stop after the progress of the gesture it ends. Dispatched with the frame
+         */
+        private void trackTouchStop() {
+            mTrackingEvents.setProgress(mEngine.getProgress(), true);
+            mTrackingEvents.offerStop();
+        }
+
+        private void draw() {
+            synchronized (mSurfaceLock) {
+                if (mSurface == null) {
+                    return;
+                }
+                if (mSurfaceSizeChanged) {
+                    mEngine.setSize(mSurfaceWidth, mSurfaceHeight);
+                    SeekBarRenderer.setViewBox(mViewBox, mEngine);
+                    mSurfaceSizeChanged = false;
+                }
+                final Canvas c;
+                try {
+                    c = mSurface.lockCanvas(null);
+                } catch (IllegalArgumentException | Surface.OutOfResourcesException e) {
+                    // the surface is going away, the next one gets a full frame
+                    return;
+                }
+                try {
+                    c.drawColor(Color.TRANSPARENT, PorterDuff.Mode.CLEAR);
+                    SeekBarRenderer.drawLayers(c, mEngine, mViewBox, mRingPaint, mInnerCirclePaint,
+                            mStyle.mShowIndicator, mStyle.mShowInnerCircle);
+                    if (mStyle.mShowText) {
+                        if (mStyle.mProgressText != null) {
+                            SeekBarRenderer.drawCustomText(c, mEngine, mStyle.mProgressText, mProgressTextPaint);
+                        } else {
+                            mProgressTextBuffer.update(mEngine.getProgress());
+                            if (mStyle.mProgressTextAutoFit) {
+                                mProgressTextPaint.setTextSize(mProgressTextFitter.getFitSize(mProgressTextPaint,
+                                        mProgressTextBuffer.getChars(), mProgressTextBuffer.getStart(),
+                                        mProgressTextBuffer.getLength(), mEngine.getInnerCircleRadius() * 2,
+                                        mStyle.mProgressTextSize));
+                            }
+                            SeekBarRenderer.drawProgressText(c, mEngine, mProgressTextBuffer.getChars(),
+                                    mProgressTextBuffer.getStart(), mProgressTextBuffer.getLength(),
+                                    mProgressTextPaint);
+                        }
+                    }
+                } finally {
+                    mSurface.unlockCanvasAndPost(c);
+                }
+            }
+        }
+
+        /**
+         * Detached: end the fling like {@link CircularSeekBar} does, forget the touch and any pending sample
+         */
+        private void release() {
+            if (mFrameScheduler != null) {
+                mFrameScheduler.cancel();
+            }
+            if (mEngine.isFlinging()) {
+                mEngine.stopFling();
+                trackTouchStop();
+                postDispatch();
+            }
+            mEngine.resetTouch();
+            mTouchQueue.clear();
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.akaita.android.circularseekbar;
+
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.view.Choreographer;
+
+/**
+ * Runs a callback once on the next display frame, on the UI thread or on a render thread with a Looper.
+ * Uses Choreographer where available (API 16+), and a Handler ticking at ~60Hz before that.
+ * Scheduling an already scheduled frame does nothing, so any number of requests between two frames
+ * collapse into a single callback. Neither scheduling nor running a frame allocates.
+ */
+abstract class FrameScheduler {
+
+    interface Callback {
+        /**
+         * @param frameTimeNanos time the frame started rendering, in the {@link System#nanoTime()} timebase
+         */
+        void doFrame(long frameTimeNanos);
+    }
+
+    // refresh period assumed when there is no Choreographer
+    static final long FALLBACK_FRAME_MS = 16;
+
+    protected final Callback mCallback;
+    protected boolean mScheduled = false;
+
+    static FrameScheduler create(Callback callback) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+            return new ChoreographerScheduler(callback);
+        } else {
+            return new HandlerScheduler(callback, Looper.getMainLooper());
+        }
+    }
+
+    /**
+     * Scheduler running the callback on the calling thread, which must have a Looper (e.g. a render thread)
+     */
+    static FrameScheduler createForCurrentThread(Callback callback) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+            // Choreographer instances are per thread
+            return new ChoreographerScheduler(callback);
+        } else {
+            return new HandlerScheduler(callback, Looper.myLooper());
+        }
+    }
+
+    private FrameScheduler(Callback callback) {
+        mCallback = callback;
+    }
+
+    /**
+     * Request the callback on the next frame. Must be called from the thread the scheduler runs on
+     */
+    void schedule() {
+        if (!mScheduled) {
+            mScheduled = true;
+            post();
+        }
+    }
+
+    void cancel() {
+        if (mScheduled) {
+            mScheduled = false;
+            remove();
+        }
+    }
+
+    boolean isScheduled() {
+        return mScheduled;
+    }
+
+    protected void run(long frameTimeNanos) {
+        if (mScheduled) {
+            mScheduled = false;
+            mCallback.doFrame(frameTimeNanos);
+        }
+    }
+
+    protected abstract void post();
+
+    protected abstract void remove();
+
+    @TargetApi(Build.VERSION_CODES.JELLY_BEAN)
+    private static class ChoreographerScheduler extends FrameScheduler implements Choreographer.FrameCallback {
+        private final Choreographer mChoreographer = Choreographer.getInstance();
+
+        ChoreographerScheduler(Callback callback) {
+            super(callback);
+        }
+
+        @Override
+        protected void post() {
+            mChoreographer.postFrameCallback(this);
+        }
+
+        @Override
+        protected void remove() {
+            mChoreographer.removeFrameCallback(this);
+        }
+
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            run(frameTimeNanos);
+        }
+    }
+
+    private static class HandlerScheduler extends FrameScheduler implements Runnable {
+        private final Handler mHandler;
+
+        HandlerScheduler(Callback callback, Looper looper) {
+            super(callback);
+            mHandler = new Handler(looper);
+        }
+
+        @Override
+        protected void post() {
+            // align to a 60Hz grid, like a display would
+            long delay = FALLBACK_FRAME_MS - SystemClock.uptimeMillis() % FALLBACK_FRAME_MS;
+            mHandler.postDelayed(this, delay);
+        }
+
+        @Override
+        protected void remove() {
+            mHandler.removeCallbacks(this);
+        }
+
+        @Override
+        public void run() {
+            run(System.nanoTime());
+        }
+    }
+}
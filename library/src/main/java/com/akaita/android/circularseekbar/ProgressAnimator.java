@@ -0,0 +1,96 @@
+package com.akaita.android.circularseekbar;
+
+import android.support.annotation.NonNull;
+import android.view.animation.DecelerateInterpolator;
+import android.view.animation.Interpolator;
+
+/**
+ * Single, reusable animator of the progress, driven by display frames.
+ * Starting it while it runs retargets it from the current progress instead of stacking another animation.
+ * No reflection, no boxing and no allocation per frame.
+ */
+class ProgressAnimator implements FrameScheduler.Callback {
+
+    interface Target {
+        float getAnimationStartProgress();
+
+        void applyAnimatedProgress(float progress);
+    }
+
+    static final Interpolator DEFAULT_INTERPOLATOR = new DecelerateInterpolator();
+
+    private final Target mTarget;
+    private final FrameScheduler mFrameScheduler;
+
+    private boolean mRunning = false;
+    private float mFrom;
+    private float mTo;
+    private long mStartNanos;
+    private long mDurationNanos;
+    private Interpolator mInterpolator = DEFAULT_INTERPOLATOR;
+
+    ProgressAnimator(Target target) {
+        mTarget = target;
+        mFrameScheduler = FrameScheduler.create(this);
+    }
+
+    /**
+     * Animate from the current progress to the given one
+     * @param to already clamped to the valid range
+     * @param durationMillis
+     * @param interpolator
+     */
+    void start(float to, long durationMillis, @NonNull Interpolator interpolator) {
+        mFrom = mTarget.getAnimationStartProgress();
+        mTo = to;
+        mInterpolator = interpolator;
+        mStartNanos = System.nanoTime();
+        mDurationNanos = durationMillis * 1000000L;
+        if (durationMillis <= 0) {
+            end();
+            return;
+        }
+        mRunning = true;
+        mFrameScheduler.schedule();
+    }
+
+    /**
+     * Stop where it is
+     */
+    void cancel() {
+        mRunning = false;
+        mFrameScheduler.cancel();
+    }
+
+    /**
+     * Jump to the end
+     */
+    void end() {
+        cancel();
+        mTarget.applyAnimatedProgress(mTo);
+    }
+
+    boolean isRunning() {
+        return mRunning;
+    }
+
+    float getTarget() {
+        return mTo;
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        if (!mRunning) {
+            return;
+        }
+        float fraction = (float) (frameTimeNanos - mStartNanos) / mDurationNanos;
+        if (fraction >= 1) {
+            mRunning = false;
+            mTarget.applyAnimatedProgress(mTo);
+            return;
+        }
+        fraction = Math.max(fraction, 0);
+        mTarget.applyAnimatedProgress(mFrom + (mTo - mFrom) * mInterpolator.getInterpolation(fraction));
+        mFrameScheduler.schedule();
+    }
+}
@@ -0,0 +1,150 @@
+package com.akaita.android.circularseekbar;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+
+/**
+ * Decides when progress changes reach the {@link CircularSeekBar.OnCircularSeekBarChangeListener}.
+ * Updates which are not dispatched right away are merged: only the latest value is kept, together with
+ * the number of updates it represents. Pending updates are always flushed before start/stop callbacks,
+ * so the listener sees them in order.
+ */
+class ProgressDispatcher implements FrameScheduler.Callback, Runnable {
+
+    interface Target {
+        /**
+         * @param source one of the CircularSeekBar.SOURCE_ constants
+         */
+        void dispatchProgressChanged(float progress, int source, int mergedUpdates);
+    }
+
+    private final Target mTarget;
+    private final FrameScheduler mFrameScheduler;
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+
+    private int mMode = CircularSeekBar.DISPATCH_IMMEDIATE;
+    private long mIntervalMillis = 100;
+
+    private boolean mPending = false;
+    private float mPendingProgress;
+    private int mPendingSource;
+    private int mPendingCount = 0;
+    private boolean mDelayedPosted = false;
+    private long mLastDispatchMillis = Long.MIN_VALUE / 2;
+
+    ProgressDispatcher(Target target) {
+        mTarget = target;
+        mFrameScheduler = FrameScheduler.create(this);
+    }
+
+    void setMode(int mode) {
+        flush();
+        mMode = mode;
+    }
+
+    int getMode() {
+        return mMode;
+    }
+
+    /**
+     * @param intervalMillis minimum time between two dispatches when throttling,
+     *                       quiet time before dispatching when debouncing
+     */
+    void setInterval(long intervalMillis) {
+        mIntervalMillis = intervalMillis;
+    }
+
+    long getInterval() {
+        return mIntervalMillis;
+    }
+
+    /**
+     * @param progress
+     * @param source one of the CircularSeekBar.SOURCE_ constants
+     */
+    void onProgressChanged(float progress, int source) {
+        if (mMode == CircularSeekBar.DISPATCH_IMMEDIATE) {
+            dispatch(progress, source, 1);
+            return;
+        }
+
+        // never merge changes from different sources into one callback
+        if (mPending && mPendingSource != source) {
+            flush();
+        }
+        mPending = true;
+        mPendingProgress = progress;
+        mPendingSource = source;
+        mPendingCount++;
+
+        switch (mMode) {
+            case CircularSeekBar.DISPATCH_PER_FRAME:
+                mFrameScheduler.schedule();
+                break;
+            case CircularSeekBar.DISPATCH_THROTTLE:
+                long now = SystemClock.uptimeMillis();
+                long next = mLastDispatchMillis + mIntervalMillis;
+                if (now >= next) {
+                    flush();
+                } else if (!mDelayedPosted) {
+                    mDelayedPosted = true;
+                    mHandler.postAtTime(this, next);
+                }
+                break;
+            case CircularSeekBar.DISPATCH_DEBOUNCE:
+                mHandler.removeCallbacks(this);
+                mDelayedPosted = true;
+                mHandler.postDelayed(this, mIntervalMillis);
+                break;
+        }
+    }
+
+    /**
+     * Drop the pending update, if any, without dispatching it
+     */
+    void discard() {
+        mFrameScheduler.cancel();
+        if (mDelayedPosted) {
+            mDelayedPosted = false;
+            mHandler.removeCallbacks(this);
+        }
+        mPending = false;
+        mPendingCount = 0;
+    }
+
+    /**
+     * Dispatch the pending update now, if any
+     */
+    void flush() {
+        mFrameScheduler.cancel();
+        if (mDelayedPosted) {
+            mDelayedPosted = false;
+            mHandler.removeCallbacks(this);
+        }
+        if (mPending) {
+            float progress = mPendingProgress;
+            int source = mPendingSource;
+            int count = mPendingCount;
+            mPending = false;
+            mPendingCount = 0;
+            dispatch(progress, source, count);
+        }
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        flush();
+    }
+
+    @Override
+    public void run() {
+        mDelayedPosted = false;
+        flush();
+    }
+
+    private void dispatch(float progress, int source, int mergedUpdates) {
+        mLastDispatchMillis = SystemClock.uptimeMillis();
+        mTarget.dispatchProgressChanged(progress, source, mergedUpdates);
+    }
+}
@@ -0,0 +1,132 @@
+package com.akaita.android.circularseekbar;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Thread-safe way of driving the progress of a {@link CircularSeekBar} from background threads
+ * (sensors, telemetry...). {@link #post(float)} may be called from any thread at any rate: it writes
+ * into a lock-free latest-value slot and never waits for the UI thread. The UI thread takes the latest
+ * value once per display frame, so any number of posts collapse into at most one update and one redraw
+ * per frame.
+ */
+public final class ProgressFeed {
+
+    interface Target {
+        /**
+         * Apply the progress on the UI thread
+         * @return false if the progress was rejected
+         */
+        boolean applyFeedProgress(float progress);
+    }
+
+    // a NaN bit pattern never produced by Float.floatToIntBits, which collapses every NaN to 0x7fc00000
+    private static final int EMPTY = 0x7fc00001;
+
+    private final AtomicInteger mSlot = new AtomicInteger(EMPTY);
+    private final AtomicLong mPostedCount = new AtomicLong();
+    private final AtomicLong mCoalescedCount = new AtomicLong();
+    private final AtomicLong mDroppedCount = new AtomicLong();
+    private final AtomicLong mAppliedCount = new AtomicLong();
+
+    private final Target mTarget;
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+    private final FrameScheduler mFrameScheduler;
+    private final Runnable mWakeUp = new Runnable() {
+        @Override
+        public void run() {
+            mFrameScheduler.schedule();
+        }
+    };
+
+    ProgressFeed(Target target) {
+        mTarget = target;
+        mFrameScheduler = FrameScheduler.create(new FrameScheduler.Callback() {
+            @Override
+            public void doFrame(long frameTimeNanos) {
+                consume();
+            }
+        });
+    }
+
+    /**
+     * Offer a new progress. Safe to call from any thread; never blocks on the UI thread.
+     * NaN is dropped. Values still pending when a newer one arrives are coalesced.
+     * Values which reach the UI thread while the user is dragging the ring are dropped: the user wins.
+     * @param progress
+     */
+    public void post(float progress) {
+        mPostedCount.incrementAndGet();
+        if (Float.isNaN(progress)) {
+            mDroppedCount.incrementAndGet();
+            return;
+        }
+        int previous = mSlot.getAndSet(Float.floatToIntBits(progress));
+        if (previous == EMPTY) {
+            // first value since the last frame: wake up the UI thread, once
+            mHandler.post(mWakeUp);
+        } else {
+            mCoalescedCount.incrementAndGet();
+        }
+    }
+
+    /**
+     * @return number of calls to {@link #post(float)}
+     */
+    public long getPostedCount() {
+        return mPostedCount.get();
+    }
+
+    /**
+     * @return number of posted values replaced by a newer one before the UI thread could apply them
+     */
+    public long getCoalescedCount() {
+        return mCoalescedCount.get();
+    }
+
+    /**
+     * @return number of posted values rejected (NaN, or the user was dragging the ring)
+     */
+    public long getDroppedCount() {
+        return mDroppedCount.get();
+    }
+
+    /**
+     * @return number of values applied to the CircularSeekBar
+     */
+    public long getAppliedCount() {
+        return mAppliedCount.get();
+    }
+
+    public void resetCounts() {
+        mPostedCount.set(0);
+        mCoalescedCount.set(0);
+        mDroppedCount.set(0);
+        mAppliedCount.set(0);
+    }
+
+    /**
+     * Drop the value waiting for the UI thread, if any
+     */
+    void discard() {
+        mFrameScheduler.cancel();
+        if (mSlot.getAndSet(EMPTY) != EMPTY) {
+            mDroppedCount.incrementAndGet();
+        }
+    }
+
+    private void consume() {
+        int bits = mSlot.getAndSet(EMPTY);
+        if (bits == EMPTY) {
+            return;
+        }
+        if (mTarget.applyFeedProgress(Float.intBitsToFloat(bits))) {
+            mAppliedCount.incrementAndGet();
+        } else {
+            mDroppedCount.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.akaita.android.circularseekbar;
+
+import android.graphics.Paint;
+
+/**
+ * Measures and sizes the progress text without asking the font on every frame.
+ * Glyph advances are measured once per character at a reference size and scaled, so measuring a text
+ * is a sum over its characters. Auto-fit sizes are cached by character count: digits all count as the
+ * widest one, so the size stays put while the value changes and only moves when the text gets longer.
+ * <p>
+ * Kerning is ignored, which is fine for the digits and separators of a number.
+ */
+final class ProgressTextFitter {
+
+    private static final float REFERENCE_SIZE = 100f;
+    private static final int MAX_CACHED_LENGTH = 64;
+
+    private final Paint mMeasurePaint = new Paint();
+    private boolean mValid = false;
+    private float mMaxDigitAdvance;
+    private float mLineHeight;
+
+    // advances at REFERENCE_SIZE of the characters seen so far, usually under a dozen
+    private char[] mGlyphs = new char[16];
+    private float[] mAdvances = new float[16];
+    private int mGlyphCount = 0;
+    private final char[] mGlyph = new char[1];
+    private final float[] mGlyphAdvance = new float[1];
+
+    // fit size by character count, 0 if not computed yet
+    private final float[] mFitSizes = new float[MAX_CACHED_LENGTH + 1];
+    private float mFitDiameter = -1;
+
+    /**
+     * Forget everything measured, after the paint or format changed
+     */
+    void invalidate() {
+        mValid = false;
+    }
+
+    /**
+     * @return width of the text drawn with the paint at its current text size
+     */
+    float measure(Paint paint, char[] chars, int start, int length) {
+        validate(paint);
+        float width = 0;
+        for (int i = start; i < start + length; i++) {
+            width += getAdvance(chars[i]);
+        }
+        return width * paint.getTextSize() / REFERENCE_SIZE;
+    }
+
+    /**
+     * @param diameter of the circle the text box must fit in
+     * @param maxSize text size never exceeded, even if there is room
+     * @return text size at which any text of this length fits in the circle
+     */
+    float getFitSize(Paint paint, char[] chars, int start, int length, float diameter, float maxSize) {
+        validate(paint);
+        if (diameter != mFitDiameter) {
+            clearFitSizes();
+            mFitDiameter = diameter;
+        }
+        if (length <= MAX_CACHED_LENGTH && mFitSizes[length] > 0) {
+            return Math.min(mFitSizes[length], maxSize);
+        }
+
+        float width = 0;
+        for (int i = start; i < start + length; i++) {
+            char c = chars[i];
+            width += Character.isDigit(c) ? Math.max(mMaxDigitAdvance, getAdvance(c)) : getAdvance(c);
+        }
+        // width and height grow linearly with the size, and the box diagonal must fit the diameter
+        float size = diameter * REFERENCE_SIZE / (float) Math.hypot(width, mLineHeight);
+        if (length <= MAX_CACHED_LENGTH) {
+            mFitSizes[length] = size;
+        }
+        return Math.min(size, maxSize);
+    }
+
+    private void validate(Paint paint) {
+        if (mValid) {
+            return;
+        }
+        mMeasurePaint.set(paint);
+        mMeasurePaint.setTextSize(REFERENCE_SIZE);
+        mGlyphCount = 0;
+        clearFitSizes();
+        mMaxDigitAdvance = 0;
+        for (char c = '0'; c <= '9'; c++) {
+            mMaxDigitAdvance = Math.max(mMaxDigitAdvance, getAdvance(c));
+        }
+        mLineHeight = mMeasurePaint.descent() - mMeasurePaint.ascent();
+        mValid = true;
+    }
+
+    private float getAdvance(char c) {
+        for (int i = 0; i < mGlyphCount; i++) {
+            if (mGlyphs[i] == c) {
+                return mAdvances[i];
+            }
+        }
+        mGlyph[0] = c;
+        mMeasurePaint.getTextWidths(mGlyph, 0, 1, mGlyphAdvance);
+        if (mGlyphCount == mGlyphs.length) {
+            char[] glyphs = new char[mGlyphCount * 2];
+            float[] advances = new float[mGlyphCount * 2];
+            System.arraycopy(mGlyphs, 0, glyphs, 0, mGlyphCount);
+            System.arraycopy(mAdvances, 0, advances, 0, mGlyphCount);
+            mGlyphs = glyphs;
+            mAdvances = advances;
+        }
+        mGlyphs[mGlyphCount] = c;
+        mAdvances[mGlyphCount] = mGlyphAdvance[0];
+        mGlyphCount++;
+        return mGlyphAdvance[0];
+    }
+
+    private void clearFitSizes() {
+        for (int i = 0; i < mFitSizes.length; i++) {
+            mFitSizes[i] = 0;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.akaita.android.circularseekbar;
+
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Process;
+
+/**
+ * Render thread shared by every {@link CircularSeekBarSurface}, so a screen full of them costs one thread.
+ * Started by the first surface and kept for the life of the process: an idle Looper costs nothing.
+ */
+final class SeekBarRenderThread {
+
+    private static Handler sHandler;
+
+    private SeekBarRenderThread() {
+    }
+
+    static synchronized Handler getHandler() {
+        if (sHandler == null) {
+            HandlerThread thread = new HandlerThread("CircularSeekBarRender", Process.THREAD_PRIORITY_DISPLAY);
+            thread.start();
+            sHandler = new Handler(thread.getLooper());
+        }
+        return sHandler;
+    }
+}
@@ -0,0 +1,103 @@
+package com.akaita.android.circularseekbar;
+
+import android.content.res.Resources;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.RectF;
+import android.support.annotation.Nullable;
+
+import com.akaita.android.circularseekbar.core.SeekBarEngine;
+
+import java.text.NumberFormat;
+
+/**
+ * Drawing shared by {@link CircularSeekBar} and {@link CircularSeekBarSurface}. Geometry comes from a
+ * {@link SeekBarEngine} and the Paints from the caller, so the same code runs on the UI thread
+ * or on a render thread. Nothing here keeps state or allocates.
+ */
+final class SeekBarRenderer {
+
+    // the indicator is a wedge of INDICATOR_SWEEP degrees centered on the touch. 0 degrees is EAST for drawArc
+    static final float INDICATOR_START_OFFSET = -105;
+    static final float INDICATOR_SWEEP = 30;
+    static final int DIM_ALPHA = 80;
+
+    // smallest wrap_content size, a comfortable touch target
+    private static final float MIN_DIAMETER_DP = 48f;
+    // wrap_content rings are at most this many times as wide as the inner circle they surround
+    private static final float MAX_RING_TO_TEXT_RATIO = 10f;
+
+    private SeekBarRenderer() {
+    }
+
+    /**
+     * dimmed ring, then the indicator if touching, then the inner circle
+     */
+    static void drawLayers(Canvas c, SeekBarEngine engine, RectF viewBox, Paint ringPaint, Paint innerCirclePaint,
+                           boolean showIndicator, boolean showInnerCircle) {
+        drawWholeCircle(c, engine, ringPaint);
+
+        if (showIndicator && engine.isTouching()) {
+            drawProgressArc(c, viewBox, engine.getTouchAngle(), ringPaint);
+        }
+
+        if (showInnerCircle) {
+            drawInnerCircle(c, engine, innerCirclePaint);
+        }
+    }
+
+    static void drawWholeCircle(Canvas c, SeekBarEngine engine, Paint ringPaint) {
+        // the Paint may be shared with other seek bars of the style, so every draw sets the alpha it needs
+        ringPaint.setAlpha(DIM_ALPHA);
+        c.drawCircle(engine.getCenterX(), engine.getCenterY(), engine.getOuterCircleRadius(), ringPaint);
+    }
+
+    static void drawInnerCircle(Canvas c, SeekBarEngine engine, Paint innerCirclePaint) {
+        c.drawCircle(engine.getCenterX(), engine.getCenterY(), engine.getInnerCircleRadius(), innerCirclePaint);
+    }
+
+    static void drawProgressArc(Canvas c, RectF viewBox, float touchAngle, Paint ringPaint) {
+        ringPaint.setAlpha(255);
+        c.drawArc(viewBox, touchAngle + INDICATOR_START_OFFSET, INDICATOR_SWEEP, true, ringPaint);
+    }
+
+    static void drawProgressText(Canvas c, SeekBarEngine engine, char[] chars, int start, int length,
+                                 Paint textPaint) {
+        c.drawText(chars, start, length, engine.getCenterX(), engine.getCenterY() + textPaint.descent(), textPaint);
+    }
+
+    static void drawCustomText(Canvas c, SeekBarEngine engine, String text, Paint textPaint) {
+        c.drawText(text, engine.getCenterX(), engine.getCenterY() + textPaint.descent(), textPaint);
+    }
+
+    /**
+     * @param text custom text, or null to fit the progress text between min and max
+     * @return size for wrap_content: the inner circle holds the widest text, the ring surrounds it
+     */
+    static int getIntrinsicDiameter(Resources resources, SeekBarEngine engine, boolean showText,
+                                    @Nullable String text, Paint textPaint, NumberFormat format) {
+        float inner = 0;
+        if (showText) {
+            float textWidth;
+            if (text != null) {
+                textWidth = textPaint.measureText(text);
+            } else {
+                textWidth = Math.max(textPaint.measureText(format.format(engine.getMin())),
+                        textPaint.measureText(format.format(engine.getMax())));
+            }
+            float textHeight = textPaint.descent() - textPaint.ascent();
+            // the text box must fit in the circle: its diagonal is the diameter
+            inner = (float) Math.hypot(textWidth, textHeight);
+        }
+        float outer = inner / Math.max(1 - engine.getRingWidthFactor(), 1 / MAX_RING_TO_TEXT_RATIO);
+        return (int) Math.ceil(Math.max(outer, Utils.convertDpToPixel(resources, MIN_DIAMETER_DP)));
+    }
+
+    static void setViewBox(RectF out, SeekBarEngine engine) {
+        float centerX = engine.getCenterX();
+        float centerY = engine.getCenterY();
+        float radius = engine.getOuterCircleRadius();
+
+        out.set(centerX - radius, centerY - radius, centerX + radius, centerY + radius);
+    }
+}
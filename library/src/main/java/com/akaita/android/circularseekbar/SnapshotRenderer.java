@@ -0,0 +1,215 @@
+package com.akaita.android.circularseekbar;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.RectF;
+import android.support.annotation.IntRange;
+import android.support.annotation.NonNull;
+
+import com.akaita.android.circularseekbar.core.ProgressTextBuffer;
+import com.akaita.android.circularseekbar.core.SeekBarEngine;
+
+import java.text.NumberFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Draws a CircularSeekBar into a Bitmap without a View, for app widgets, notifications and thumbnails.
+ * Safe to use from any thread.
+ * <p>
+ * The progress is quantised to a number of buckets between min and max, and the text shows the
+ * quantised value. Bitmaps are cached by style, size and bucket, least recently used first out once
+ * the cache holds more than its byte budget, so rendering nearly the same state again costs a lookup.
+ * Returned bitmaps belong to the cache: don't modify or recycle them.
+ */
+public final class SnapshotRenderer {
+
+    private final int mMaxBytes;
+    private final int mProgressBuckets;
+    // access-ordered: iteration starts with the least recently used
+    private final LinkedHashMap<Key, Bitmap> mCache = new LinkedHashMap<>(16, 0.75f, true);
+    private final Key mLookupKey = new Key();
+    private int mBytes = 0;
+    private long mHitCount = 0;
+    private long mMissCount = 0;
+
+    // drawing state, rebuilt when the style changes. Guarded by this
+    private CircularSeekBarStyle mStyle;
+    private final SeekBarEngine mEngine = new SeekBarEngine(CircularSeekBar.VELOCITY_STRATEGY_LEAST_SQUARES);
+    private final RectF mViewBox = new RectF();
+    private Paint mRingPaint;
+    private Paint mInnerCirclePaint;
+    private Paint mProgressTextPaint;
+    private ProgressTextBuffer mProgressTextBuffer;
+    private final ProgressTextFitter mProgressTextFitter = new ProgressTextFitter();
+
+    /**
+     * @param maxBytes budget of the bitmap cache, 0 for no caching
+     * @param progressBuckets number of distinct progress values between min and max, e.g. (max - min) / step.
+     *                        Progress in between is rounded to the nearest one
+     */
+    public SnapshotRenderer(@IntRange(from=0) int maxBytes, @IntRange(from=1) int progressBuckets) {
+        if (maxBytes < 0 || progressBuckets < 1) {
+            throw new IllegalArgumentException("maxBytes must be at least 0, progressBuckets at least 1");
+        }
+        mMaxBytes = maxBytes;
+        mProgressBuckets = progressBuckets;
+    }
+
+    /**
+     * @param style
+     * @param sizePx width and height of the bitmap
+     * @param progress
+     * @return the seek bar at the quantised progress, from the cache if possible. Owned by the cache
+     */
+    public synchronized @NonNull Bitmap render(@NonNull CircularSeekBarStyle style, @IntRange(from=1) int sizePx,
+                                               float progress) {
+        final int bucket = getBucket(style, progress);
+        mLookupKey.set(style, sizePx, bucket);
+        Bitmap bitmap = mCache.get(mLookupKey);
+        if (bitmap != null) {
+            mHitCount++;
+            return bitmap;
+        }
+        mMissCount++;
+
+        bitmap = Bitmap.createBitmap(sizePx, sizePx, Bitmap.Config.ARGB_8888);
+        draw(new Canvas(bitmap), style, sizePx, getBucketProgress(style, bucket));
+
+        final int bytes = bitmap.getRowBytes() * bitmap.getHeight();
+        if (bytes <= mMaxBytes) {
+            Key key = new Key();
+            key.set(style, sizePx, bucket);
+            mCache.put(key, bitmap);
+            mBytes += bytes;
+            trimToBudget();
+        }
+        return bitmap;
+    }
+
+    /**
+     * Draw without caching, e.g. into a bitmap owned by the caller
+     * @param canvas whose top-left sizePx square receives the seek bar
+     */
+    public synchronized void draw(@NonNull Canvas canvas, @NonNull CircularSeekBarStyle style,
+                                  @IntRange(from=1) int sizePx, float progress) {
+        setStyle(style);
+        mEngine.setSize(sizePx, sizePx);
+        mEngine.setProgress(progress);
+        SeekBarRenderer.setViewBox(mViewBox, mEngine);
+
+        SeekBarRenderer.drawLayers(canvas, mEngine, mViewBox, mRingPaint, mInnerCirclePaint, false,
+                style.mShowInnerCircle);
+        if (style.mShowText) {
+            if (style.mProgressText != null) {
+                SeekBarRenderer.drawCustomText(canvas, mEngine, style.mProgressText, mProgressTextPaint);
+            } else {
+                mProgressTextBuffer.update(mEngine.getProgress());
+                if (style.mProgressTextAutoFit) {
+                    mProgressTextPaint.setTextSize(mProgressTextFitter.getFitSize(mProgressTextPaint,
+                            mProgressTextBuffer.getChars(), mProgressTextBuffer.getStart(),
+                            mProgressTextBuffer.getLength(), mEngine.getInnerCircleRadius() * 2,
+                            style.mProgressTextSize));
+                }
+                SeekBarRenderer.drawProgressText(canvas, mEngine, mProgressTextBuffer.getChars(),
+                        mProgressTextBuffer.getStart(), mProgressTextBuffer.getLength(), mProgressTextPaint);
+            }
+        }
+    }
+
+    public synchronized void evictAll() {
+        mCache.clear();
+        mBytes = 0;
+    }
+
+    /**
+     * @return bytes held by cached bitmaps
+     */
+    public synchronized int getCacheBytes() {
+        return mBytes;
+    }
+
+    public int getMaxBytes() {
+        return mMaxBytes;
+    }
+
+    public synchronized long getHitCount() {
+        return mHitCount;
+    }
+
+    public synchronized long getMissCount() {
+        return mMissCount;
+    }
+
+    private int getBucket(CircularSeekBarStyle style, float progress) {
+        final float range = style.mMax - style.mMin;
+        if (range == 0) {
+            return 0;
+        }
+        float fraction = (progress - style.mMin) / range;
+        fraction = Math.max(0f, Math.min(1f, fraction));
+        return Math.round(fraction * mProgressBuckets);
+    }
+
+    private float getBucketProgress(CircularSeekBarStyle style, int bucket) {
+        return style.mMin + (style.mMax - style.mMin) * bucket / mProgressBuckets;
+    }
+
+    private void trimToBudget() {
+        Iterator<Map.Entry<Key, Bitmap>> eldest = mCache.entrySet().iterator();
+        while (mBytes > mMaxBytes && eldest.hasNext()) {
+            Bitmap bitmap = eldest.next().getValue();
+            eldest.remove();
+            // not recycled: a caller may still be showing it
+            mBytes -= bitmap.getRowBytes() * bitmap.getHeight();
+        }
+    }
+
+    /**
+     * Take the style's attributes, with private copies of its Paints and format: the shared ones belong
+     * to the UI thread
+     */
+    private void setStyle(CircularSeekBarStyle style) {
+        if (style == mStyle) {
+            return;
+        }
+        mStyle = style;
+        mEngine.setMin(style.mMin);
+        mEngine.setMax(style.mMax);
+        mEngine.setValueScale(style.mValueScale);
+        mEngine.setRingWidthFactor(style.mRingWidthFactor);
+        mRingPaint = new Paint(style.mRingPaint);
+        mInnerCirclePaint = new Paint(style.mInnerCirclePaint);
+        mProgressTextPaint = new Paint(style.mProgressTextPaint);
+        mProgressTextBuffer = new ProgressTextBuffer((NumberFormat) style.mProgressTextFormat.clone());
+        mProgressTextFitter.invalidate();
+    }
+
+    private static final class Key {
+        CircularSeekBarStyle mStyle;
+        int mSize;
+        int mBucket;
+
+        void set(CircularSeekBarStyle style, int size, int bucket) {
+            mStyle = style;
+            mSize = size;
+            mBucket = bucket;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return mStyle == other.mStyle && mSize == other.mSize && mBucket == other.mBucket;
+        }
+
+        @Override
+        public int hashCode() {
+            return (System.identityHashCode(mStyle) * 31 + mSize) * 31 + mBucket;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.akaita.android.circularseekbar;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.support.annotation.Nullable;
+
+/**
+ * Bitmap holding the layers of the CircularSeekBar which don't change while the user drags
+ * (the dimmed ring and the inner circle), so they are rasterised once per size, color or paint
+ * change instead of on every frame.
+ */
+class StaticLayerCache {
+
+    private @Nullable Bitmap mBitmap;
+    private final Canvas mCanvas = new Canvas();
+    private boolean mDirty = true;
+    private float mLeft;
+    private float mTop;
+
+    /**
+     * The cached layers must be redrawn before they are used again
+     */
+    void invalidate() {
+        mDirty = true;
+    }
+
+    /**
+     * Start redrawing the cached layers, if they are out of date
+     * @param left position of the cached area in the view
+     * @param top position of the cached area in the view
+     * @param size side of the square cached area
+     * @return a canvas in view coordinates to draw the layers into, or null if the cache is up to date
+     */
+    @Nullable Canvas begin(float left, float top, float size) {
+        int side = (int) Math.ceil(size);
+        if (side <= 0) {
+            return null;
+        }
+        if (mBitmap == null || mBitmap.getWidth() != side) {
+            release();
+            mBitmap = Bitmap.createBitmap(side, side, Bitmap.Config.ARGB_8888);
+            mCanvas.setBitmap(mBitmap);
+            mDirty = true;
+        }
+        if (!mDirty && mLeft == left && mTop == top) {
+            return null;
+        }
+        mLeft = left;
+        mTop = top;
+        mBitmap.eraseColor(0);
+        mCanvas.save();
+        mCanvas.translate(-left, -top);
+        return mCanvas;
+    }
+
+    void end() {
+        mCanvas.restore();
+        mDirty = false;
+    }
+
+    void draw(Canvas c) {
+        if (mBitmap != null) {
+            c.drawBitmap(mBitmap, mLeft, mTop, null);
+        }
+    }
+
+    /**
+     * Drop the bitmap, leaving it to the garbage collector: a frame which was already recorded may still
+     * draw it. It will be recreated the next time it is needed
+     */
+    void release() {
+        if (mBitmap != null) {
+            mCanvas.setBitmap(null);
+            mBitmap = null;
+        }
+        mDirty = true;
+    }
+
+    /**
+     * Free the bitmap right away. Only once the view is detached, when no frame can draw it anymore
+     */
+    void recycle() {
+        final Bitmap bitmap = mBitmap;
+        release();
+        if (bitmap != null) {
+            bitmap.recycle();
+        }
+    }
+}
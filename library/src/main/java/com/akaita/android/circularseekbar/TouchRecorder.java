@@ -0,0 +1,52 @@
+package com.akaita.android.circularseekbar;
+
+import android.support.annotation.Nullable;
+import android.view.MotionEvent;
+import android.view.View;
+
+import com.akaita.android.circularseekbar.core.TouchRecording;
+import com.akaita.android.circularseekbar.core.TouchReplay;
+
+/**
+ * Captures the touch stream of a seek bar, historical samples included, into a {@link TouchRecording}
+ * that {@link TouchReplay} can play back on a desktop JVM, e.g. to turn a "knob jumps when spun fast"
+ * report into a test. Install it with {@link View#setOnTouchListener}: it only watches, the view still
+ * handles every event.
+ */
+public class TouchRecorder implements View.OnTouchListener {
+
+    private @Nullable TouchRecording mRecording = null;
+
+    @Override
+    public boolean onTouch(View view, MotionEvent event) {
+        if (mRecording == null
+                || mRecording.getWidth() != view.getWidth() || mRecording.getHeight() != view.getHeight()) {
+            // replays need the geometry of the touches
+            mRecording = new TouchRecording(view.getWidth(), view.getHeight());
+        }
+        int action = event.getAction();
+        if (action == MotionEvent.ACTION_MOVE) {
+            final int historySize = event.getHistorySize();
+            for (int h = 0; h < historySize; h++) {
+                mRecording.add(TouchRecording.ACTION_HISTORICAL, event.getHistoricalX(h), event.getHistoricalY(h),
+                        event.getHistoricalEventTime(h));
+            }
+        }
+        mRecording.add(action, event.getX(), event.getY(), event.getEventTime());
+        return false;
+    }
+
+    /**
+     * @return touches since the last {@link #clear()}, empty if there were none since then, or null before
+     * the first touch
+     */
+    public @Nullable TouchRecording getRecording() {
+        return mRecording;
+    }
+
+    public void clear() {
+        if (mRecording != null) {
+            mRecording.clear();
+        }
+    }
+}
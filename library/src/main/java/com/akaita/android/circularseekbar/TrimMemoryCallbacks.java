@@ -0,0 +1,48 @@
+package com.akaita.android.circularseekbar;
+
+import android.annotation.TargetApi;
+import android.content.ComponentCallbacks2;
+import android.content.res.Configuration;
+import android.os.Build;
+import android.view.View;
+
+/**
+ * Drops a {@link StaticLayerCache} when the system is low on memory or the UI is hidden, and redraws its view
+ * so that no frame keeps drawing the dropped bitmap.
+ * Kept in its own class because ComponentCallbacks2 doesn't exist before ICE_CREAM_SANDWICH
+ */
+@TargetApi(Build.VERSION_CODES.ICE_CREAM_SANDWICH)
+class TrimMemoryCallbacks implements ComponentCallbacks2 {
+
+    private final StaticLayerCache mCache;
+    private final View mView;
+
+    TrimMemoryCallbacks(StaticLayerCache cache, View view) {
+        mCache = cache;
+        mView = view;
+    }
+
+    @Override
+    public void onTrimMemory(int level) {
+        // RUNNING_LOW and above: memory is getting tight, or the UI is not visible anymore
+        if (level >= TRIM_MEMORY_RUNNING_LOW) {
+            release();
+        }
+    }
+
+    @Override
+    public void onLowMemory() {
+        release();
+    }
+
+    @Override
+    public void onConfigurationChanged(Configuration newConfig) {
+        // Nothing
+    }
+
+    private void release() {
+        // the bitmap may still be drawn by the last frame: dropped, not recycled
+        mCache.release();
+        mView.invalidate();
+    }
+}
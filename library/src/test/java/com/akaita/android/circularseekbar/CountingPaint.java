@@ -0,0 +1,50 @@
+package com.akaita.android.circularseekbar;
+
+import android.graphics.Paint;
+
+/**
+ * Paint counting the changes made to its drawing state
+ */
+class CountingPaint extends Paint {
+    int mChanges;
+
+    CountingPaint(Paint paint) {
+        super(paint);
+    }
+
+    @Override
+    public void setAlpha(int a) {
+        mChanges++;
+        super.setAlpha(a);
+    }
+
+    @Override
+    public void setColor(int color) {
+        mChanges++;
+        super.setColor(color);
+    }
+
+    @Override
+    public void setTextSize(float textSize) {
+        mChanges++;
+        super.setTextSize(textSize);
+    }
+
+    @Override
+    public void setStyle(Style style) {
+        mChanges++;
+        super.setStyle(style);
+    }
+
+    @Override
+    public void setStrokeWidth(float width) {
+        mChanges++;
+        super.setStrokeWidth(width);
+    }
+
+    @Override
+    public void setAntiAlias(boolean aa) {
+        mChanges++;
+        super.setAntiAlias(aa);
+    }
+}
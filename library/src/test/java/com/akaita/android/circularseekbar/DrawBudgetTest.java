@@ -0,0 +1,183 @@
+package com.akaita.android.circularseekbar;
+
+import android.view.MotionEvent;
+import android.view.View;
+
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+import static org.junit.Assert.*;
+
+/**
+ * Draws every combination of indicator, inner circle and text into a {@link RecordingCanvas}, and fails
+ * when a frame issues more draw operations, Paint changes or allocations than it needs
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 25)
+public class DrawBudgetTest {
+    private static final int SIZE = 400;
+    private static final int WARMUP_FRAMES = 2000;
+    private static final int FRAMES = 200;
+
+    private static final int TEXT_NONE = 0;
+    private static final int TEXT_PROGRESS = 1;
+    private static final int TEXT_CUSTOM = 2;
+
+    // the ring Paint is dimmed for the ring, then made opaque for the indicator: once each per frame
+    private static final int RING_PAINT_CHANGES_PER_FRAME = 1;
+    private static final int INDICATOR_PAINT_CHANGES_PER_FRAME = 1;
+    // room for the odd allocation inside Robolectric's shadows, not for a String or an array every frame
+    private static final long ALLOCATED_BYTES_PER_FRAME = 16;
+
+    private com.sun.management.ThreadMXBean mAllocations;
+
+    @Before
+    public void setUp() throws Exception {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean
+                && ((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported()) {
+            mAllocations = (com.sun.management.ThreadMXBean) bean;
+            mAllocations.setThreadAllocatedMemoryEnabled(true);
+        }
+    }
+
+    @Test
+    public void draw_staysWithinOperationAndPaintBudgets() throws Exception {
+        for (boolean indicator : new boolean[]{false, true}) {
+            for (boolean innerCircle : new boolean[]{false, true}) {
+                for (int text : new int[]{TEXT_NONE, TEXT_PROGRESS, TEXT_CUSTOM}) {
+                    checkOperations(indicator, innerCircle, text);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void draw_staysWithinAllocationBudget() throws Exception {
+        Assume.assumeTrue(mAllocations != null);
+        for (boolean indicator : new boolean[]{false, true}) {
+            for (boolean innerCircle : new boolean[]{false, true}) {
+                for (int text : new int[]{TEXT_NONE, TEXT_PROGRESS, TEXT_CUSTOM}) {
+                    checkAllocations(indicator, innerCircle, text);
+                }
+            }
+        }
+    }
+
+    private void checkOperations(boolean indicator, boolean innerCircle, int text) {
+        final String name = describe(indicator, innerCircle, text);
+        final Fixture fixture = new Fixture(indicator, innerCircle, text);
+        final RecordingCanvas canvas = new RecordingCanvas();
+
+        for (int frame = 0; frame < FRAMES; frame++) {
+            fixture.nextFrame(frame);
+            canvas.reset();
+            fixture.resetPaintChanges();
+            fixture.mSeekBar.onDraw(canvas);
+
+            assertEquals(name + ": circles", innerCircle ? 2 : 1, canvas.mCircles);
+            assertEquals(name + ": arcs", indicator ? 1 : 0, canvas.mArcs);
+            assertEquals(name + ": texts", text == TEXT_NONE ? 0 : 1, canvas.mTexts);
+            assertEquals(name + ": bitmaps", 0, canvas.mBitmaps);
+            assertBudget(name + ": ring paint changes",
+                    RING_PAINT_CHANGES_PER_FRAME + (indicator ? INDICATOR_PAINT_CHANGES_PER_FRAME : 0),
+                    fixture.mRingPaint.mChanges);
+            assertBudget(name + ": inner circle paint changes", 0, fixture.mInnerCirclePaint.mChanges);
+            assertBudget(name + ": text paint changes", 0, fixture.mProgressTextPaint.mChanges);
+        }
+    }
+
+    private void checkAllocations(boolean indicator, boolean innerCircle, int text) {
+        final String name = describe(indicator, innerCircle, text);
+        final Fixture fixture = new Fixture(indicator, innerCircle, text);
+        final RecordingCanvas canvas = new RecordingCanvas();
+        final long threadId = Thread.currentThread().getId();
+
+        // warm up, so class loading, JIT and lazy initialisation don't count
+        for (int frame = 0; frame < WARMUP_FRAMES; frame++) {
+            fixture.nextFrame(frame);
+            fixture.mSeekBar.onDraw(canvas);
+        }
+
+        long before = mAllocations.getThreadAllocatedBytes(threadId);
+        long overhead = mAllocations.getThreadAllocatedBytes(threadId) - before;
+        long allocated = 0;
+        for (int frame = 0; frame < FRAMES; frame++) {
+            fixture.nextFrame(frame);
+            before = mAllocations.getThreadAllocatedBytes(threadId);
+            fixture.mSeekBar.onDraw(canvas);
+            allocated += mAllocations.getThreadAllocatedBytes(threadId) - before - overhead;
+        }
+
+        assertTrue(name + ": " + allocated / FRAMES + " bytes allocated per frame",
+                allocated <= ALLOCATED_BYTES_PER_FRAME * FRAMES);
+    }
+
+    private static void assertBudget(String message, int budget, int actual) {
+        assertTrue(message + ": " + actual + ", budget " + budget, actual <= budget);
+    }
+
+    private static String describe(boolean indicator, boolean innerCircle, int text) {
+        return "indicator=" + indicator + " innerCircle=" + innerCircle
+                + " text=" + (text == TEXT_NONE ? "none" : text == TEXT_PROGRESS ? "progress" : "custom");
+    }
+
+    /**
+     * A seek bar being dragged, drawing with counting Paints
+     */
+    private static class Fixture {
+        final CircularSeekBar mSeekBar;
+        final CountingPaint mRingPaint;
+        final CountingPaint mInnerCirclePaint;
+        final CountingPaint mProgressTextPaint;
+
+        Fixture(boolean indicator, boolean innerCircle, int text) {
+            CircularSeekBarStyle style = CircularSeekBarStyle.obtain(RuntimeEnvironment.application, 0);
+            mSeekBar = new CircularSeekBar(RuntimeEnvironment.application, style);
+            mRingPaint = new CountingPaint(style.mRingPaint);
+            mInnerCirclePaint = new CountingPaint(style.mInnerCirclePaint);
+            mProgressTextPaint = new CountingPaint(style.mProgressTextPaint);
+            mSeekBar.setRingPaint(mRingPaint);
+            mSeekBar.setInnerCirclePaint(mInnerCirclePaint);
+            mSeekBar.setProgressTextPaint(mProgressTextPaint);
+
+            mSeekBar.setIndicator(indicator);
+            mSeekBar.setInnerCircle(innerCircle);
+            mSeekBar.setProgressText(text != TEXT_NONE);
+            if (text == TEXT_CUSTOM) {
+                mSeekBar.setProgressText("Custom");
+            }
+            mSeekBar.setMax(1000);
+
+            mSeekBar.measure(View.MeasureSpec.makeMeasureSpec(SIZE, View.MeasureSpec.EXACTLY),
+                    View.MeasureSpec.makeMeasureSpec(SIZE, View.MeasureSpec.EXACTLY));
+            mSeekBar.layout(0, 0, SIZE, SIZE);
+
+            // hold the ring, so the indicator is shown when enabled
+            MotionEvent down = MotionEvent.obtain(0, 0, MotionEvent.ACTION_DOWN, SIZE / 2, SIZE / 8, 0);
+            mSeekBar.onTouchEvent(down);
+            down.recycle();
+        }
+
+        /**
+         * A new progress, so the text changes from frame to frame like during a drag
+         */
+        void nextFrame(int frame) {
+            mSeekBar.setProgress(frame % 1000);
+        }
+
+        void resetPaintChanges() {
+            mRingPaint.mChanges = 0;
+            mInnerCirclePaint.mChanges = 0;
+            mProgressTextPaint.mChanges = 0;
+        }
+    }
+}
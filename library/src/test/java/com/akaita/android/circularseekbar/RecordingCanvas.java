@@ -0,0 +1,68 @@
+package com.akaita.android.circularseekbar;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.RectF;
+
+/**
+ * Canvas which counts draw operations instead of drawing them. Counting allocates nothing, so
+ * allocations measured around a draw are the seek bar's own
+ */
+class RecordingCanvas extends Canvas {
+    int mCircles;
+    int mArcs;
+    int mTexts;
+    int mBitmaps;
+    int mSaves;
+
+    int getDrawCount() {
+        return mCircles + mArcs + mTexts + mBitmaps;
+    }
+
+    void reset() {
+        mCircles = 0;
+        mArcs = 0;
+        mTexts = 0;
+        mBitmaps = 0;
+        mSaves = 0;
+    }
+
+    @Override
+    public void drawCircle(float cx, float cy, float radius, Paint paint) {
+        mCircles++;
+    }
+
+    @Override
+    public void drawArc(RectF oval, float startAngle, float sweepAngle, boolean useCenter, Paint paint) {
+        mArcs++;
+    }
+
+    @Override
+    public void drawText(char[] text, int index, int count, float x, float y, Paint paint) {
+        mTexts++;
+    }
+
+    @Override
+    public void drawText(String text, float x, float y, Paint paint) {
+        mTexts++;
+    }
+
+    @Override
+    public void drawBitmap(Bitmap bitmap, float left, float top, Paint paint) {
+        mBitmaps++;
+    }
+
+    @Override
+    public int save() {
+        return ++mSaves;
+    }
+
+    @Override
+    public void restore() {
+    }
+
+    @Override
+    public void translate(float dx, float dy) {
+    }
+}
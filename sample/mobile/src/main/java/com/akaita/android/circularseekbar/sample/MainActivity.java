@@ -4,12 +4,29 @@ import android.graphics.Color;
 import android.support.design.widget.Snackbar;
 import android.support.v7.app.AppCompatActivity;
 import android.os.Bundle;
+import android.util.Log;
 
 import com.akaita.android.circularseekbar.CircularSeekBar;
+import com.akaita.android.circularseekbar.TouchRecorder;
+import com.akaita.android.circularseekbar.core.TouchRecording;
 
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.text.DecimalFormat;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class MainActivity extends AppCompatActivity {
+    private static final String TAG = "MainActivity";
+
+    // every gesture is saved to the app's external files, for replay with TouchReplay
+    private final TouchRecorder mTouchRecorder = new TouchRecorder();
+    // files are written off the UI thread, one at a time
+    private final ExecutorService mDiskExecutor = Executors.newSingleThreadExecutor();
+    private int mGestureCount = 0;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -20,6 +37,7 @@ public class MainActivity extends AppCompatActivity {
         seekBar.setProgressTextFormat(new DecimalFormat("###,###,###,##0.00"));
         seekBar.setProgress(0);
         seekBar.setRingColor(Color.GREEN);
+        seekBar.setOnTouchListener(mTouchRecorder);
 
         seekBar.setOnCenterClickedListener(new CircularSeekBar.OnCenterClickedListener() {
             @Override
@@ -47,7 +65,50 @@ public class MainActivity extends AppCompatActivity {
 
             @Override
             public void onStopTrackingTouch(CircularSeekBar seekBar) {
-                // Nothing
+                saveGesture();
+            }
+        });
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        // gestures already handed over are still saved
+        mDiskExecutor.shutdown();
+    }
+
+    private void saveGesture() {
+        TouchRecording recording = mTouchRecorder.getRecording();
+        File dir = getExternalFilesDir(null);
+        if (recording == null || recording.size() == 0 || dir == null) {
+            return;
+        }
+        final int samples = recording.size();
+        // serialised in memory here, since the recorder reuses the recording for the next gesture
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try {
+            recording.write(bytes);
+        } catch (IOException e) {
+            Log.w(TAG, "Could not save the gesture", e);
+            return;
+        } finally {
+            mTouchRecorder.clear();
+        }
+        final File file = new File(dir, "gesture-" + (mGestureCount++) + ".touch");
+        mDiskExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    OutputStream out = new FileOutputStream(file);
+                    try {
+                        bytes.writeTo(out);
+                    } finally {
+                        out.close();
+                    }
+                    Log.d(TAG, "Saved " + samples + " touch samples to " + file);
+                } catch (IOException e) {
+                    Log.w(TAG, "Could not save the gesture", e);
+                }
             }
         });
     }
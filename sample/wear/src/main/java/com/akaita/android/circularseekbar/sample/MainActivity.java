@@ -28,24 +28,30 @@ public class MainActivity extends WearableActivity {
         setAmbientEnabled();
 
         mContainerView = (BoxInsetLayout) findViewById(R.id.container);
-        mTextView = (CircularSeekBar) findViewById(R.id.text);
+        mTextView = (CircularSeekBar) findViewById(R.id.seekbar);
+        // rotary input goes to the focused view
+        mTextView.requestFocus();
         mClockView = (TextView) findViewById(R.id.clock);
     }
 
     @Override
     public void onEnterAmbient(Bundle ambientDetails) {
         super.onEnterAmbient(ambientDetails);
+        mTextView.setBurnInProtection(ambientDetails.getBoolean(EXTRA_BURN_IN_PROTECTION, false));
+        mTextView.setAmbientMode(true);
         updateDisplay();
     }
 
     @Override
     public void onUpdateAmbient() {
         super.onUpdateAmbient();
+        mTextView.updateAmbient();
         updateDisplay();
     }
 
     @Override
     public void onExitAmbient() {
+        mTextView.setAmbientMode(false);
         updateDisplay();
         super.onExitAmbient();
     }